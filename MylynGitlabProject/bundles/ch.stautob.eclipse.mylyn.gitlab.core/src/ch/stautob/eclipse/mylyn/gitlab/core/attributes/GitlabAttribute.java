@@ -37,7 +37,9 @@ public enum GitlabAttribute {
 
    PRIORITY("Priority", TaskAttribute.PRIORITY, TaskAttribute.TYPE_SHORT_TEXT, GitlabFlag.READ_ONLY),
 
-   TYPE("Type", TaskAttribute.TASK_KIND, TaskAttribute.TYPE_SHORT_TEXT, GitlabFlag.READ_ONLY);
+   TYPE("Type", TaskAttribute.TASK_KIND, TaskAttribute.TYPE_SHORT_TEXT, GitlabFlag.READ_ONLY),
+
+   NOTES("Notes", "ch.stautob.eclipse.gitlab.issue.notes", TaskAttribute.TYPE_INTEGER, GitlabFlag.READ_ONLY);
 
    public static final String TypeBug     = "bug";
    public static final String TypeFeature = "feature";
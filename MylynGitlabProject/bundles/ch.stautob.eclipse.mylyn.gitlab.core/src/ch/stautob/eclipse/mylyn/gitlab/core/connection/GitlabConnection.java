@@ -5,12 +5,20 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.gitlab.api.GitlabAPI;
 import org.gitlab.api.models.GitlabMilestone;
 import org.gitlab.api.models.GitlabProject;
 import org.gitlab.api.models.GitlabProjectMember;
 
+import ch.stautob.eclipse.mylyn.gitlab.core.Activator;
 import ch.stautob.eclipse.mylyn.gitlab.core.attributes.GitlabAttributeMapper;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueFetcher;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.NoteCache;
 
 
 public class GitlabConnection {
@@ -22,6 +30,9 @@ public class GitlabConnection {
 
    private List<GitlabMilestone>     milestones;
    private List<GitlabProjectMember> members;
+   private GitlabAPI                 api;
+   private GitlabIssueFetcher        fetcher;
+   private final NoteCache           notes = new NoteCache();
 
    public GitlabConnection(String host, GitlabProject project, String token, GitlabAttributeMapper mapper) {
       this.host = host;
@@ -30,8 +41,32 @@ public class GitlabConnection {
       this.mapper = mapper;
    }
 
-   public GitlabAPI api() {
-      return GitlabAPI.connect(host, token);
+   /**
+    * Returns the api of this connection. The instance is shared, so all requests
+    * for this repository reuse the same pooled connections.
+    *
+    * @return
+    */
+   public synchronized GitlabAPI api() {
+      if (api == null) {
+         api = GitlabAPI.connect(host, token);
+         registerMetrics(api);
+      }
+      return api;
+   }
+
+   /**
+    * Makes the request metrics of this repository visible over JMX, e.g. in JConsole.
+    */
+   private void registerMetrics(GitlabAPI api) {
+      try {
+         api.getMetrics().register("ch.stautob.eclipse.mylyn.gitlab:type=Metrics,name=" + ObjectName.quote(host + "/" + project
+               .getPathWithNamespace()));
+      } catch (JMException e) {
+         if (Activator.get() != null) {
+            Activator.get().getLog().log(new Status(IStatus.WARNING, Activator.ID_PLUGIN, "Unable to register the api metrics", e));
+         }
+      }
    }
 
    public void update() throws IOException {
@@ -45,6 +80,25 @@ public class GitlabConnection {
       members = Collections.unmodifiableList(memberList);
    }
 
+   /**
+    * Returns the issue fetcher of this connection. It is shared, so once GraphQL
+    * turned out to be unavailable, later downloads skip it.
+    */
+   public synchronized GitlabIssueFetcher fetcher() {
+      if (fetcher == null) {
+         fetcher = new GitlabIssueFetcher(api(), project);
+      }
+      return fetcher;
+   }
+
+   /**
+    * Returns the notes of the issues downloaded last, so downloading an issue
+    * again only requests its new and edited notes.
+    */
+   public NoteCache notes() {
+      return notes;
+   }
+
    public List<GitlabMilestone> getMilestones() {
       return Collections.unmodifiableList(milestones);
    }
@@ -1,8 +1,11 @@
 package ch.stautob.eclipse.mylyn.gitlab.core.connection;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -11,24 +14,32 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.tasks.core.AbstractRepositoryConnector;
 import org.eclipse.mylyn.tasks.core.IRepositoryQuery;
 import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.ITaskContainer;
 import org.eclipse.mylyn.tasks.core.TaskRepository;
 import org.eclipse.mylyn.tasks.core.data.AbstractTaskDataHandler;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
-import org.eclipse.mylyn.tasks.core.data.TaskMapper;
 import org.eclipse.mylyn.tasks.core.sync.ISynchronizationSession;
 import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.IssueFilter;
 import org.gitlab.api.models.GitlabIssue;
 
 import ch.stautob.eclipse.mylyn.gitlab.core.Activator;
 import ch.stautob.eclipse.mylyn.gitlab.core.exceptions.GitlabException;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueFetcher;
 import ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueSearch;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.IssueWatermark;
 import ch.stautob.eclipse.mylyn.gitlab.core.tasks.GitlabTaskDataHandler;
 import ch.stautob.eclipse.mylyn.gitlab.core.tasks.GitlabTaskMapper;
 
 
 public class GitlabConnector extends AbstractRepositoryConnector {
 
+   /**
+    * The query attribute holding the {@link IssueWatermark} of the last synchronization
+    */
+   public static final String ATTRIBUTE_WATERMARK = "watermark";
+
    private GitlabTaskDataHandler handler = new GitlabTaskDataHandler();
 
    @Override
@@ -79,9 +90,10 @@ public class GitlabConnector extends AbstractRepositoryConnector {
 
    @Override
    public boolean hasTaskChanged(TaskRepository repository, ITask task, TaskData data) {
-      TaskMapper mapper = new GitlabTaskMapper(data);
+      GitlabTaskMapper mapper = new GitlabTaskMapper(data);
       if (data.isPartial()) {
-         return mapper.hasChanges(task);
+         // The notes are only downloaded with the full data of tasks that changed
+         return mapper.hasChanges(task) || mapper.hasNewNotes(task);
       } else {
          Date repositoryDate = mapper.getModificationDate();
          Date localDate = task.getModificationDate();
@@ -94,17 +106,45 @@ public class GitlabConnector extends AbstractRepositoryConnector {
    public IStatus performQuery(TaskRepository repository, IRepositoryQuery query, TaskDataCollector collector, ISynchronizationSession session,
          IProgressMonitor monitor) {
 
+      GitlabAPI api = null;
       try {
          monitor.beginTask("Tasks querying", IProgressMonitor.UNKNOWN);
          GitlabConnection connection = ConnectionManager.get(repository);
-         GitlabAPI api = connection.api();
+         api = connection.api();
 
          GitlabIssueSearch search = new GitlabIssueSearch(query);
-         List<GitlabIssue> issues = api.getIssues(connection.project);
+         GitlabIssueFetcher fetcher = connection.fetcher();
+         String key = connection.project.getId() + "\n" + search.getKey();
+         long now = System.currentTimeMillis();
+         IssueWatermark watermark = IssueWatermark.parse(query.getAttribute(ATTRIBUTE_WATERMARK));
+         List<TaskData> stored = watermark != null && watermark.isIncremental(key, now) && search.isMatchedLocally() ? getStoredTaskData(repository,
+               query, session) : null;
+
+         IssueFilter filter;
+         if (stored != null) {
+            // Changed issues that no longer match are needed as well, to drop them from the query
+            filter = new IssueFilter().withUpdatedAfter(watermark.getUpdatedAfter());
+         } else {
+            filter = search.toFilter(connection.getProjectMembers());
+         }
+         List<GitlabIssue> issues = fetcher.fetchIssues(filter);
+
+         Set<String> fetched = new HashSet<>();
+         for (GitlabIssue issue : issues) {
+            fetched.add(String.valueOf(issue.getIid()));
+            if (search.doesMatch(issue)) collector.accept(handler.createPartialTaskData(issue, repository));
+         }
 
-         for (GitlabIssue i : issues) {
-            if (search.doesMatch(i)) collector.accept(handler.createTaskDataFromGitlabIssue(i, repository, api.getNotes(i)));
+         if (stored != null) {
+            // Tasks missing from the result are removed from the query, so the unchanged ones are passed on as well
+            for (TaskData data : stored) {
+               if (!fetched.contains(data.getTaskId())) collector.accept(data);
+            }
+            watermark = watermark.advance(issues);
+         } else {
+            watermark = IssueWatermark.full(issues, key, now);
          }
+         query.setAttribute(ATTRIBUTE_WATERMARK, watermark != null ? watermark.toString() : null);
 
          return Status.OK_STATUS;
       } catch (CoreException e) {
@@ -113,6 +153,37 @@ public class GitlabConnector extends AbstractRepositoryConnector {
          return new Status(IStatus.ERROR, Activator.ID_PLUGIN, "Unable to execute Query: " + e.getMessage());
       } finally {
          monitor.done();
+         logMetrics(api);
+      }
+   }
+
+   /**
+    * @return The data of the tasks of the query as last synchronized, or null
+    *         if the data of a task is not available
+    */
+   private static List<TaskData> getStoredTaskData(TaskRepository repository, IRepositoryQuery query, ISynchronizationSession session) {
+      if (!(query instanceof ITaskContainer) || session == null || session.getTaskDataManager() == null) { return null; }
+      List<TaskData> stored = new ArrayList<>();
+      for (ITask task : ((ITaskContainer) query).getChildren()) {
+         if (!repository.getRepositoryUrl().equals(task.getRepositoryUrl())) continue;
+         try {
+            TaskData data = session.getTaskDataManager().getTaskData(task);
+            if (data == null) { return null; }
+            stored.add(data);
+         } catch (CoreException e) {
+            return null;
+         }
+      }
+      return stored;
+   }
+
+   /**
+    * Logs where the time of the requests went, if the plug-in is debugging.
+    */
+   private void logMetrics(GitlabAPI api) {
+      Activator activator = Activator.get();
+      if (api != null && api.getMetrics() != null && activator != null && activator.isDebugging()) {
+         activator.getLog().log(new Status(IStatus.INFO, Activator.ID_PLUGIN, api.getMetrics().getSnapshot().toString()));
       }
    }
 
@@ -0,0 +1,66 @@
+package ch.stautob.eclipse.mylyn.gitlab.core.issues;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.IssueFilter;
+import org.gitlab.api.graphql.GraphQLException;
+import org.gitlab.api.graphql.IssueWithNotes;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabProject;
+
+
+/**
+ * Fetches the issues of a project matching a filter, and issues with their
+ * notes by iid. Free of Mylyn types, so synchronization can be driven outside
+ * of Eclipse, e.g. by load tests.
+ */
+public class GitlabIssueFetcher {
+
+   private final GitlabAPI     api;
+   private final GitlabProject project;
+
+   private volatile IOException graphQLFailure;
+
+   public GitlabIssueFetcher(GitlabAPI api, GitlabProject project) {
+      this.api = api;
+      this.project = project;
+   }
+
+   /**
+    * Fetches the issues matching a filter without their notes, one request
+    * per hundred issues.
+    */
+   public List<GitlabIssue> fetchIssues(IssueFilter filter) throws IOException {
+      return api.getIssues(project.getId(), filter);
+   }
+
+   /**
+    * Fetches issues with all their notes over GraphQL, one request per page
+    * of issues instead of two requests per issue over REST. Once the server
+    * turned out to lack GraphQL, or a schema with the queried fields, null is
+    * returned right away and the issues are left to REST.
+    *
+    * @return The issues found with their notes, or null if GraphQL is not
+    *         available
+    */
+   public List<IssueWithNotes> fetchWithNotes(Collection<Integer> iids) throws IOException {
+      if (graphQLFailure != null) { return null; }
+      try {
+         return api.graphql().getIssuesWithNotes(project.getPathWithNamespace(), iids);
+      } catch (FileNotFoundException | GraphQLException e) {
+         graphQLFailure = e;
+         return null;
+      }
+   }
+
+   /**
+    * @return Why GraphQL is not used, or null if it is
+    */
+   public IOException getGraphQLFailure() {
+      return graphQLFailure;
+   }
+}
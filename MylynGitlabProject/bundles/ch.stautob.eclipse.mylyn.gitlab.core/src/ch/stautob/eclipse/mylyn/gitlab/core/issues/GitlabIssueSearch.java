@@ -2,16 +2,30 @@ package ch.stautob.eclipse.mylyn.gitlab.core.issues;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.mylyn.tasks.core.IRepositoryQuery;
+import org.gitlab.api.IssueFilter;
 import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabUser;
 
 
+/**
+ * The criteria of a query. Those GitLab can evaluate are sent along with the
+ * request of the issues, see {@link #toFilter(List)}, the rest is matched on
+ * the client, see {@link #doesMatch(GitlabIssue)}.
+ */
 public class GitlabIssueSearch {
 
+   /**
+    * A label pattern matching exactly one label, e.g. "^bug$"
+    */
+   private static final Pattern EXACT_LABEL = Pattern.compile("\\^([^\\\\.\\[\\]{}()*+?^$|]+)\\$");
+
    private String assignee;
    private String milestone;
+   private String search;
 
    private Boolean opened;
    private Boolean closed;
@@ -19,17 +33,102 @@ public class GitlabIssueSearch {
    private List<Pattern> labels = new ArrayList<>();
 
    public GitlabIssueSearch(IRepositoryQuery query) {
-      assignee = query.getAttribute("assignee");
-      milestone = query.getAttribute("milestone");
+      this(query.getAttribute("assignee"), query.getAttribute("milestone"), Boolean.parseBoolean(query.getAttribute("opened")), Boolean
+            .parseBoolean(query.getAttribute("closed")), query.getAttribute("labels"), query.getAttribute("search"));
+   }
 
-      opened = Boolean.parseBoolean(query.getAttribute("opened"));
-      closed = Boolean.parseBoolean(query.getAttribute("closed"));
+   public GitlabIssueSearch(String assignee, String milestone, boolean opened, boolean closed, String labels) {
+      this(assignee, milestone, opened, closed, labels, null);
+   }
 
-      for (String label : query.getAttribute("labels").split(",")) {
+   /**
+    * @param assignee
+    *        The username or name of the assignee, or "" for any
+    * @param milestone
+    *        The title of the milestone, or "" for any
+    * @param labels
+    *        Comma separated patterns, each of which must be found in a label
+    * @param search
+    *        Text the server searches the title and description for, or "" or
+    *        null for any
+    */
+   public GitlabIssueSearch(String assignee, String milestone, boolean opened, boolean closed, String labels, String search) {
+      this.assignee = assignee;
+      this.milestone = milestone;
+      this.search = search != null ? search.trim() : "";
+
+      this.opened = opened;
+      this.closed = closed;
+
+      for (String label : labels.split(",")) {
          if (label.trim().length() > 0) {
-            labels.add(Pattern.compile(label.trim()));
+            this.labels.add(Pattern.compile(label.trim()));
+         }
+      }
+   }
+
+   /**
+    * Translates the criteria GitLab can evaluate into a filter of the issues
+    * request. The assignee is sent if it is the username or name of a member,
+    * label patterns only if they match a single label exactly, e.g. "^bug$".
+    * Other patterns remain for {@link #doesMatch(GitlabIssue)}, which checks
+    * all criteria but the search text again.
+    *
+    * @param members
+    *        The members of the project, may be null
+    */
+   public IssueFilter toFilter(List<? extends GitlabUser> members) {
+      IssueFilter filter = new IssueFilter();
+      if (opened != closed) {
+         filter.withState(opened ? GitlabIssue.STATE_OPENED : GitlabIssue.STATE_CLOSED);
+      }
+      if (!milestone.equals("")) {
+         filter.withMilestone(milestone);
+      }
+      if (!assignee.equals("")) {
+         filter.withAssigneeUsername(username(assignee, members));
+      }
+      for (Pattern label : labels) {
+         Matcher exact = EXACT_LABEL.matcher(label.pattern());
+         if (exact.matches()) {
+            filter.withLabel(exact.group(1));
          }
       }
+      if (!search.equals("")) {
+         filter.withSearch(search);
+      }
+      return filter;
+   }
+
+   private static String username(String assignee, List<? extends GitlabUser> members) {
+      if (members == null) { return null; }
+      for (GitlabUser member : members) {
+         if (assignee.equals(member.getUsername())) { return assignee; }
+      }
+      for (GitlabUser member : members) {
+         if (assignee.equals(member.getName())) { return member.getUsername(); }
+      }
+      return null;
+   }
+
+   /**
+    * @return Whether {@link #doesMatch(GitlabIssue)} checks all criteria, it
+    *         can not check the search text
+    */
+   public boolean isMatchedLocally() {
+      return search.equals("");
+   }
+
+   /**
+    * @return A key that is equal for searches matching the same issues
+    */
+   public String getKey() {
+      StringBuilder key = new StringBuilder(assignee).append('\n').append(milestone).append('\n').append(opened).append('\n').append(closed)
+            .append('\n').append(search);
+      for (Pattern label : labels) {
+         key.append('\n').append(label.pattern());
+      }
+      return key.toString();
    }
 
    public boolean doesMatch(GitlabIssue issue) {
@@ -0,0 +1,101 @@
+package ch.stautob.eclipse.mylyn.gitlab.core.issues;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.gitlab.api.models.GitlabIssue;
+
+
+/**
+ * The high-water mark of the updated_at of the issues a query has seen. Later
+ * synchronizations only fetch the issues updated after it and merge them into
+ * the tasks of the query. The mark is taken from the timestamps of the server,
+ * so the clock of the client does not matter, but issues may be committed with
+ * an updated_at slightly before the latest one already read. These are caught
+ * by fetching a margin before the mark. Deleted issues are not reported by
+ * GitLab, so every {@link #FULL_SYNC_INTERVAL_MILLIS} all issues are fetched
+ * again.
+ * <p>
+ * A mark is bound to the filter of the query it was taken for, a changed
+ * filter needs a full synchronization.
+ */
+public final class IssueWatermark {
+
+   public static final long MARGIN_MILLIS             = TimeUnit.MINUTES.toMillis(2);
+   public static final long FULL_SYNC_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+   private final long   updatedAt;
+   private final long   fullSyncAt;
+   private final String filter;
+
+   private IssueWatermark(long updatedAt, long fullSyncAt, String filter) {
+      this.updatedAt = updatedAt;
+      this.fullSyncAt = fullSyncAt;
+      this.filter = filter;
+   }
+
+   /**
+    * @param value
+    *        A mark written by {@link #toString()}, may be null
+    * @return The mark, or null if there is none or it can not be read
+    */
+   public static IssueWatermark parse(String value) {
+      if (value == null) { return null; }
+      String[] parts = value.split(":", 3);
+      if (parts.length < 3) { return null; }
+      try {
+         return new IssueWatermark(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]);
+      } catch (NumberFormatException e) {
+         return null;
+      }
+   }
+
+   /**
+    * @return Whether only the issues updated after this mark need to be
+    *         fetched, given a query with the filter at the time
+    */
+   public boolean isIncremental(String filter, long now) {
+      return this.filter.equals(filter) && now - fullSyncAt < FULL_SYNC_INTERVAL_MILLIS && now >= fullSyncAt;
+   }
+
+   /**
+    * @return The point in time to fetch the issues updated after
+    */
+   public Date getUpdatedAfter() {
+      return new Date(updatedAt - MARGIN_MILLIS);
+   }
+
+   /**
+    * Takes the mark after a full synchronization.
+    *
+    * @return The mark, or null if no issue has been fetched
+    */
+   public static IssueWatermark full(Collection<GitlabIssue> issues, String filter, long now) {
+      long updatedAt = latest(issues, Long.MIN_VALUE);
+      return updatedAt != Long.MIN_VALUE ? new IssueWatermark(updatedAt, now, filter) : null;
+   }
+
+   /**
+    * Moves the mark past the issues of an incremental synchronization
+    */
+   public IssueWatermark advance(Collection<GitlabIssue> issues) {
+      long latest = latest(issues, updatedAt);
+      return latest != updatedAt ? new IssueWatermark(latest, fullSyncAt, filter) : this;
+   }
+
+   @Override
+   public String toString() {
+      return updatedAt + ":" + fullSyncAt + ":" + filter;
+   }
+
+   private static long latest(Collection<GitlabIssue> issues, long updatedAt) {
+      for (GitlabIssue issue : issues) {
+         Date date = issue.getUpdatedAt();
+         if (date != null && date.getTime() > updatedAt) {
+            updatedAt = date.getTime();
+         }
+      }
+      return updatedAt;
+   }
+}
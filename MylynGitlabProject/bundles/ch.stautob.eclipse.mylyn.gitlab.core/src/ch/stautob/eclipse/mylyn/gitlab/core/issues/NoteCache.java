@@ -0,0 +1,156 @@
+package ch.stautob.eclipse.mylyn.gitlab.core.issues;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.Pagination;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabNote;
+
+
+/**
+ * Keeps the notes of the issues downloaded last, so refreshing an issue only
+ * requests the notes created or edited since, usually a single small page.
+ * GitLab does not report deleted notes, they are noticed when the cached notes
+ * no longer add up to the user_notes_count of the issue, which then has all its
+ * notes fetched again. The cache holds at most {@link #DEFAULT_MAX_NOTES} notes,
+ * the issues used least recently are dropped first. Can be used by multiple
+ * threads.
+ */
+public final class NoteCache {
+
+   public static final int DEFAULT_MAX_NOTES = 50000;
+
+   private static final Comparator<GitlabNote> CREATED = Comparator.comparing(GitlabNote::getCreatedAt).thenComparing(GitlabNote::getId);
+
+   private final int                           maxNotes;
+   private final Map<String, List<GitlabNote>> threads = new LinkedHashMap<>(16, 0.75f, true);
+   private int                                 size;
+
+   public NoteCache() {
+      this(DEFAULT_MAX_NOTES);
+   }
+
+   public NoteCache(int maxNotes) {
+      this.maxNotes = maxNotes;
+   }
+
+   /**
+    * Returns all notes of an issue, oldest first. If the issue is cached, only
+    * the notes updated since are requested and merged into the cached ones.
+    *
+    * @param issue
+    *        The issue, as recent as possible for its user_notes_count
+    */
+   public List<GitlabNote> getNotes(GitlabAPI api, GitlabIssue issue) throws IOException {
+      List<GitlabNote> cached = get(issue);
+      List<GitlabNote> notes = null;
+      Date since = cached != null ? updatedAt(cached) : null;
+      if (since != null) {
+         notes = merge(cached, api.getNotesUpdatedSince(issue, since));
+         if (!isComplete(notes, issue)) {
+            notes = null;
+         }
+      }
+      if (notes == null) {
+         notes = new ArrayList<>(api.getNotes(issue, GitlabNote.ORDER_BY_CREATED_AT, Pagination.SORT_ASC));
+         notes.sort(CREATED);
+      }
+      store(issue, notes);
+      return new ArrayList<>(notes);
+   }
+
+   /**
+    * Caches all notes of an issue fetched otherwise, e.g. over GraphQL.
+    *
+    * @return The notes, oldest first
+    */
+   public List<GitlabNote> put(GitlabIssue issue, List<GitlabNote> notes) {
+      List<GitlabNote> sorted = new ArrayList<>(notes);
+      sorted.sort(CREATED);
+      store(issue, sorted);
+      return new ArrayList<>(sorted);
+   }
+
+   /**
+    * @return Whether the notes of the issue are cached, so downloading it only
+    *         requests the notes updated since
+    */
+   public synchronized boolean contains(Integer projectId, Integer iid) {
+      return threads.containsKey(key(projectId, iid));
+   }
+
+   /**
+    * @param notes
+    *        The notes, oldest first, not to be modified afterwards
+    */
+   private synchronized void store(GitlabIssue issue, List<GitlabNote> notes) {
+      List<GitlabNote> replaced = threads.put(key(issue.getProjectId(), issue.getIid()), Collections.unmodifiableList(notes));
+      size += notes.size() - (replaced != null ? replaced.size() : 0);
+      Iterator<List<GitlabNote>> eldest = threads.values().iterator();
+      while (size > maxNotes && eldest.hasNext()) {
+         size -= eldest.next().size();
+         eldest.remove();
+      }
+   }
+
+   public synchronized void clear() {
+      threads.clear();
+      size = 0;
+   }
+
+   private synchronized List<GitlabNote> get(GitlabIssue issue) {
+      return threads.get(key(issue.getProjectId(), issue.getIid()));
+   }
+
+   private static String key(Integer projectId, Integer iid) {
+      return projectId + "#" + iid;
+   }
+
+   /**
+    * Replaces the edited notes and appends the new ones
+    */
+   private static List<GitlabNote> merge(List<GitlabNote> cached, List<GitlabNote> updated) {
+      Map<Integer, GitlabNote> notes = new LinkedHashMap<>();
+      for (GitlabNote note : cached) {
+         notes.put(note.getId(), note);
+      }
+      for (GitlabNote note : updated) {
+         notes.put(note.getId(), note);
+      }
+      List<GitlabNote> merged = new ArrayList<>(notes.values());
+      merged.sort(CREATED);
+      return merged;
+   }
+
+   /**
+    * @return Whether the notes written by users match the count of the issue,
+    *         system notes are not counted by GitLab
+    */
+   private static boolean isComplete(List<GitlabNote> notes, GitlabIssue issue) {
+      if (issue.getUserNotesCount() == null) { return true; }
+      return notes.stream().filter(note -> !note.isSystem()).count() == issue.getUserNotesCount();
+   }
+
+   /**
+    * @return The latest updated_at of the notes, or null if there are none
+    */
+   private static Date updatedAt(List<GitlabNote> notes) {
+      Date latest = null;
+      for (GitlabNote note : notes) {
+         Date updatedAt = note.getUpdatedAt() != null ? note.getUpdatedAt() : note.getCreatedAt();
+         if (latest == null || updatedAt.after(latest)) {
+            latest = updatedAt;
+         }
+      }
+      return latest;
+   }
+}
@@ -1,9 +1,13 @@
 package ch.stautob.eclipse.mylyn.gitlab.core.tasks;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -11,6 +15,9 @@ import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.mylyn.tasks.core.ITask.PriorityLevel;
 import org.eclipse.mylyn.tasks.core.ITaskMapping;
 import org.eclipse.mylyn.tasks.core.RepositoryResponse;
@@ -22,8 +29,11 @@ import org.eclipse.mylyn.tasks.core.data.TaskAttributeMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskAttributeMetaData;
 import org.eclipse.mylyn.tasks.core.data.TaskCommentMapper;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
+import org.eclipse.mylyn.tasks.core.data.TaskDataCollector;
 import org.eclipse.mylyn.tasks.core.data.TaskOperation;
+import org.gitlab.api.FanOut;
 import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.graphql.IssueWithNotes;
 import org.gitlab.api.models.GitlabIssue;
 import org.gitlab.api.models.GitlabMilestone;
 import org.gitlab.api.models.GitlabNote;
@@ -134,7 +144,7 @@ public class GitlabTaskDataHandler extends AbstractTaskDataHandler {
          GitlabConnection connection = ConnectionManager.get(repository);
          GitlabAPI api = connection.api();
          GitlabIssue issue = api.getIssue(connection.project.getId(), ticketId);
-         List<GitlabNote> notes = api.getNotes(issue);
+         List<GitlabNote> notes = connection.notes().getNotes(api, issue);
 
          return createTaskDataFromGitlabIssue(issue, repository, notes);
       } catch (IOException e) {
@@ -142,7 +152,134 @@ public class GitlabTaskDataHandler extends AbstractTaskDataHandler {
       }
    }
 
+   @Override
+   public boolean canGetMultiTaskData(TaskRepository repository) {
+      return true;
+   }
+
+   /**
+    * Downloads the tasks seen for the first time, whose notes are not cached
+    * yet, with a batched GraphQL query, see
+    * {@link ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueFetcher#fetchWithNotes(java.util.Collection)}.
+    * The other tasks, and all of them if GraphQL is not available, are
+    * downloaded over REST in parallel, up to {@link GitlabAPI#getDetailConcurrency()}
+    * at a time. Of their notes, only those new or edited since the last download
+    * are requested, see {@link ch.stautob.eclipse.mylyn.gitlab.core.issues.NoteCache}.
+    * The data is passed to the collector as the downloads complete.
+    */
+   @Override
+   public void getMultiTaskData(TaskRepository repository, Set<String> taskIds, TaskDataCollector collector, IProgressMonitor monitor)
+         throws CoreException {
+      GitlabConnection connection = ConnectionManager.get(repository);
+      GitlabAPI api = connection.api();
+      try {
+         monitor.beginTask("Task Download", taskIds.size());
+         Set<String> remaining = downloadUncached(repository, connection, taskIds, collector, monitor);
+         boolean done = api.<String, IssueWithNotes> fanOut().cancelWhen(monitor::isCanceled).run(remaining, id -> {
+            GitlabIssue issue = api.getIssue(connection.project.getId(), GitlabConnector.getTicketId(id));
+            return new IssueWithNotes(issue, connection.notes().getNotes(api, issue));
+         }, new FanOut.Listener<String, IssueWithNotes>() {
+
+            @Override
+            public void completed(String id, IssueWithNotes issue) {
+               accept(repository, id, issue, collector);
+               monitor.worked(1);
+            }
+
+            @Override
+            public void failed(String id, Exception e) {
+               collector.failed(id, new Status(IStatus.ERROR, Activator.ID_PLUGIN, "Unable to download task " + id + ": " + e.getMessage(), e));
+               monitor.worked(1);
+            }
+         });
+         if (!done) { throw new OperationCanceledException(); }
+      } catch (InterruptedIOException e) {
+         throw new OperationCanceledException();
+      } finally {
+         monitor.done();
+      }
+   }
+
+   /**
+    * Downloads the tasks whose notes are not cached over GraphQL and caches
+    * their notes.
+    *
+    * @return The ids of the tasks left to download over REST
+    */
+   private Set<String> downloadUncached(TaskRepository repository, GitlabConnection connection, Set<String> taskIds, TaskDataCollector collector,
+         IProgressMonitor monitor) throws InterruptedIOException {
+      Set<String> remaining = new LinkedHashSet<>(taskIds);
+      Map<Integer, String> uncached = new LinkedHashMap<>();
+      for (String id : taskIds) {
+         Integer iid = GitlabConnector.getTicketId(id);
+         if (!connection.notes().contains(connection.project.getId(), iid)) {
+            uncached.put(iid, id);
+         }
+      }
+      if (uncached.isEmpty()) { return remaining; }
+
+      List<IssueWithNotes> issues;
+      try {
+         issues = connection.fetcher().fetchWithNotes(uncached.keySet());
+      } catch (InterruptedIOException e) {
+         throw e;
+      } catch (IOException e) {
+         // Left to REST, which reports the failure per task
+         return remaining;
+      }
+      if (issues == null) { return remaining; }
+
+      for (IssueWithNotes issue : issues) {
+         String id = uncached.get(issue.getIssue().getIid());
+         if (id == null || !remaining.remove(id)) {
+            continue;
+         }
+         List<GitlabNote> notes = connection.notes().put(issue.getIssue(), issue.getNotes());
+         accept(repository, id, new IssueWithNotes(issue.getIssue(), notes), collector);
+         monitor.worked(1);
+      }
+      return remaining;
+   }
+
+   private void accept(TaskRepository repository, String id, IssueWithNotes issue, TaskDataCollector collector) {
+      try {
+         collector.accept(createTaskDataFromGitlabIssue(issue.getIssue(), repository, issue.getNotes()));
+      } catch (CoreException e) {
+         collector.failed(id, e.getStatus());
+      }
+   }
+
+   /**
+    * Creates the data of a task from an issue of the issue list, without its
+    * notes. Mylyn downloads the full data once the task has changed, see
+    * {@link GitlabConnector#hasTaskChanged(TaskRepository, org.eclipse.mylyn.tasks.core.ITask, TaskData)}.
+    */
+   public TaskData createPartialTaskData(GitlabIssue issue, TaskRepository repository) throws CoreException {
+      TaskData data = createTaskData(issue, repository);
+      data.setPartial(true);
+      return data;
+   }
+
    public TaskData createTaskDataFromGitlabIssue(GitlabIssue issue, TaskRepository repository, List<GitlabNote> notes) throws CoreException {
+      TaskData data = createTaskData(issue, repository);
+
+      Collections.sort(notes, (o1, o2) -> o1.getCreatedAt().compareTo(o2.getCreatedAt()));
+
+      for (int i = 0; i < notes.size(); i++) {
+         TaskCommentMapper cmapper = new TaskCommentMapper();
+         cmapper.setAuthor(repository.createPerson(notes.get(i).getAuthor().getName()));
+         cmapper.setCreationDate(notes.get(i).getCreatedAt());
+         cmapper.setText(notes.get(i).getBody());
+         cmapper.setNumber(i + 1);
+         cmapper.setCommentId(String.valueOf(notes.get(i).getId()));
+         TaskAttribute attribute = data.getRoot().createAttribute(TaskAttribute.PREFIX_COMMENT + (i + 1));
+         cmapper.applyTo(attribute);
+      }
+
+      return data;
+   }
+
+   private TaskData createTaskData(GitlabIssue issue, TaskRepository repository) throws CoreException {
       GitlabConnection connection = ConnectionManager.get(repository);
 
       TaskData data = new TaskData(connection.mapper, Activator.CONNECTOR_KIND, repository.getUrl(), String.valueOf(issue.getIid()));
@@ -180,16 +317,8 @@ public class GitlabTaskDataHandler extends AbstractTaskDataHandler {
          root.getAttribute(GitlabAttribute.ASSIGNEE.getTaskKey()).setValue(issue.getAssignee().getName());
       }
 
-      Collections.sort(notes, (o1, o2) -> o1.getCreatedAt().compareTo(o2.getCreatedAt()));
-
-      for (int i = 0; i < notes.size(); i++) {
-         TaskCommentMapper cmapper = new TaskCommentMapper();
-         cmapper.setAuthor(repository.createPerson(notes.get(i).getAuthor().getName()));
-         cmapper.setCreationDate(notes.get(i).getCreatedAt());
-         cmapper.setText(notes.get(i).getBody());
-         cmapper.setNumber(i + 1);
-         TaskAttribute attribute = data.getRoot().createAttribute(TaskAttribute.PREFIX_COMMENT + (i + 1));
-         cmapper.applyTo(attribute);
+      if (issue.getUserNotesCount() != null) {
+         root.getAttribute(GitlabAttribute.NOTES.getTaskKey()).setValue("" + issue.getUserNotesCount());
       }
 
       GitlabAction[] actions = GitlabAction.getActions(issue);
@@ -217,6 +346,7 @@ public class GitlabTaskDataHandler extends AbstractTaskDataHandler {
       createAttribute(data, GitlabAttribute.IID);
       createAttribute(data, GitlabAttribute.PRIORITY);
       createAttribute(data, GitlabAttribute.TYPE);
+      createAttribute(data, GitlabAttribute.NOTES);
 
       data.getRoot().getAttribute(GitlabAttribute.CREATED.getTaskKey()).setValue("" + (new Date().getTime()));
 
@@ -1,8 +1,12 @@
 package ch.stautob.eclipse.mylyn.gitlab.core.tasks;
 
+import org.eclipse.mylyn.tasks.core.ITask;
+import org.eclipse.mylyn.tasks.core.data.TaskAttribute;
 import org.eclipse.mylyn.tasks.core.data.TaskData;
 import org.eclipse.mylyn.tasks.core.data.TaskMapper;
 
+import ch.stautob.eclipse.mylyn.gitlab.core.attributes.GitlabAttribute;
+
 
 public class GitlabTaskMapper extends TaskMapper {
 
@@ -10,4 +14,31 @@ public class GitlabTaskMapper extends TaskMapper {
       super(taskData);
    }
 
+   /**
+    * Also remembers the number of notes of full task data, to which the
+    * number of partial task data is compared, see {@link #hasNewNotes(ITask)}.
+    */
+   @Override
+   public void applyTo(ITask task) {
+      super.applyTo(task);
+      String notes = getNotesCount();
+      if (!getTaskData().isPartial() && notes != null) {
+         task.setAttribute(GitlabAttribute.NOTES.getTaskKey(), notes);
+      }
+   }
+
+   /**
+    * @return Whether the issue has a different number of notes than when the
+    *         task was last downloaded, false if either is unknown
+    */
+   public boolean hasNewNotes(ITask task) {
+      String notes = getNotesCount();
+      String cached = task.getAttribute(GitlabAttribute.NOTES.getTaskKey());
+      return notes != null && cached != null && !notes.equals(cached);
+   }
+
+   private String getNotesCount() {
+      TaskAttribute attribute = getTaskData().getRoot().getAttribute(GitlabAttribute.NOTES.getTaskKey());
+      return attribute != null && !attribute.getValue().isEmpty() ? attribute.getValue() : null;
+   }
 }
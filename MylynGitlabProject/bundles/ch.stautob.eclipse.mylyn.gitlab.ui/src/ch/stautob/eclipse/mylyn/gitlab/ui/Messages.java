@@ -15,6 +15,7 @@ public class Messages extends NLS {
    public static String        Strings_NewRepo;
    public static String        Strings_QueryTitle;
    public static String        Strings_RemoveSelectedLbl;
+   public static String        Strings_Search;
    public static String        Strings_State;
    static {
       // initialize resource bundle
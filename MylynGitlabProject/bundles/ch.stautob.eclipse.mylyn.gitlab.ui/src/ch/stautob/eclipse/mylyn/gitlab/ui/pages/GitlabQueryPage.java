@@ -43,6 +43,7 @@ public class GitlabQueryPage extends AbstractRepositoryQueryPage implements IWiz
    private Button      openButton;
    private Button      closedButton;
    private Text        titleText;
+   private Text        searchText;
    private Text        assigneeText;
    private Text        newLabel;
    private Combo       milestoneCombo;
@@ -197,6 +198,12 @@ public class GitlabQueryPage extends AbstractRepositoryQueryPage implements IWiz
          }
       }
 
+      Label searchLabel = new Label(optionsArea, SWT.NONE);
+      searchLabel.setText(Messages.Strings_Search);
+
+      searchText = new Text(optionsArea, SWT.BORDER | SWT.SINGLE);
+      GridDataFactory.fillDefaults().grab(true, false).applyTo(searchText);
+
       Label assigneeLabel = new Label(optionsArea, SWT.NONE);
       assigneeLabel.setText(Messages.Strings_Assignee);
 
@@ -233,7 +240,10 @@ public class GitlabQueryPage extends AbstractRepositoryQueryPage implements IWiz
       IRepositoryQuery query = getQuery();
       if (query == null) { return; }
 
-      titleText.setText(query.getSummary());
+      if (titleText != null) {
+         titleText.setText(query.getSummary());
+      }
+      searchText.setText(query.getAttribute("search") != null ? query.getAttribute("search") : "");
       assigneeText.setText(query.getAttribute("assignee"));
       milestoneCombo.setText(query.getAttribute("milestone"));
 
@@ -270,7 +280,10 @@ public class GitlabQueryPage extends AbstractRepositoryQueryPage implements IWiz
 
    @Override
    public void applyTo(IRepositoryQuery query) {
-      query.setSummary(titleText.getText());
+      if (titleText != null) {
+         query.setSummary(titleText.getText());
+      }
+      query.setAttribute("search", searchText.getText().trim());
       query.setAttribute("assignee", assigneeText.getText());
       query.setAttribute("milestone", milestoneCombo.getText());
       query.setAttribute("opened", "" + openButton.getSelection());
@@ -0,0 +1,307 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketTimeoutException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Transport based on the {@link HttpClient} of Java 11.
+ * Requests are sent over HTTP/2 where the server supports it, so all
+ * concurrent requests to a host are multiplexed over a single connection.
+ * This class lives in a fragment requiring Java 11, the {@link org.gitlab.api.GitlabAPI}
+ * falls back to the {@link UrlConnectionTransport} if it can not be loaded.
+ */
+public class HttpClientTransport implements HttpTransport {
+
+   private static final int PIPE_CHUNK_SIZE  = 16 * 1024;
+   private static final int PIPE_CHUNK_COUNT = 16;
+
+   private HttpClient client;
+   private Proxy      clientProxy;
+   private int        clientConnectTimeout;
+   private TlsConfig  clientTls;
+
+   @Override
+   public TransportResponse execute(TransportRequest request) throws IOException {
+      HttpRequest.Builder builder;
+      try {
+         builder = HttpRequest.newBuilder(request.getUrl().toURI());
+      } catch (URISyntaxException e) {
+         throw new IOException("Invalid url " + request.getUrl(), e);
+      }
+
+      for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+         builder.header(header.getKey(), header.getValue());
+      }
+      if (request.getReadTimeout() > 0) {
+         builder.timeout(Duration.ofMillis(request.getReadTimeout()));
+      }
+
+      HttpClient client = getClient(request.getProxy(), request.getConnectTimeout(), request.getTls());
+      RequestBody body = request.getBody();
+      try {
+         if (body == null || body.getContentLength() == 0) {
+            if (body != null && body.getContentType() != null) {
+               builder.header("Content-Type", body.getContentType());
+            }
+            HttpRequest httpRequest = builder.method(request.getMethod().name(), BodyPublishers.noBody()).build();
+            return new HttpClientResponse(request.getUrl(), client.send(httpRequest, BodyHandlers.ofInputStream()));
+         }
+         return sendStreaming(client, builder, request, body);
+      } catch (HttpTimeoutException e) {
+         SocketTimeoutException timeout = new SocketTimeoutException(e.getMessage());
+         timeout.initCause(e);
+         throw timeout;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Interrupted while waiting for " + request.getUrl());
+      }
+   }
+
+   /**
+    * Streams the body through a bounded pipe while the client sends it, so
+    * the body is never held in memory as a whole.
+    */
+   private TransportResponse sendStreaming(HttpClient client, HttpRequest.Builder builder, TransportRequest request, RequestBody body)
+         throws IOException, InterruptedException {
+      Pipe pipe = new Pipe();
+      BodyPublisher publisher = BodyPublishers.ofInputStream(() -> pipe.in);
+      if (body.getContentLength() > 0) {
+         publisher = BodyPublishers.fromPublisher(publisher, body.getContentLength());
+      }
+      if (body.getContentType() != null) {
+         builder.header("Content-Type", body.getContentType());
+      }
+
+      CompletableFuture<HttpResponse<InputStream>> future = client.sendAsync(builder.method(request.getMethod().name(), publisher).build(),
+            BodyHandlers.ofInputStream());
+      pipe.sender = future;
+      try {
+         body.writeTo(pipe.out);
+         pipe.out.close();
+      } catch (IOException | RuntimeException e) {
+         pipe.abort();
+         future.cancel(true);
+         throw e;
+      }
+
+      try {
+         return new HttpClientResponse(request.getUrl(), future.get());
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof IOException) { throw (IOException) cause; }
+         throw new IOException(cause);
+      }
+   }
+
+   private synchronized HttpClient getClient(Proxy proxy, int connectTimeout, TlsConfig tls) throws IOException {
+      if (proxy == null) {
+         proxy = Proxy.NO_PROXY;
+      }
+      if (client == null || !proxy.equals(clientProxy) || connectTimeout != clientConnectTimeout || tls != clientTls) {
+         HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).followRedirects(HttpClient.Redirect.NORMAL);
+         if (proxy.type() == Proxy.Type.HTTP && proxy.address() instanceof InetSocketAddress) {
+            builder.proxy(ProxySelector.of((InetSocketAddress) proxy.address()));
+         } else if (proxy.type() != Proxy.Type.DIRECT) {
+            throw new IOException("Proxies of type " + proxy.type() + " are not supported by the HTTP/2 transport");
+         }
+         if (connectTimeout > 0) {
+            builder.connectTimeout(Duration.ofMillis(connectTimeout));
+         }
+         if (tls != null) {
+            builder.sslContext(tls.getSslContext());
+         }
+         client = builder.build();
+         clientProxy = proxy;
+         clientConnectTimeout = connectTimeout;
+         clientTls = tls;
+      }
+      return client;
+   }
+
+   @Override
+   public synchronized void close() {
+      client = null;
+   }
+
+   private static class HttpClientResponse implements TransportResponse {
+
+      private final URL                       url;
+      private final HttpResponse<InputStream> response;
+
+      HttpClientResponse(URL url, HttpResponse<InputStream> response) {
+         this.url = url;
+         this.response = response;
+      }
+
+      @Override
+      public URL getUrl() {
+         return url;
+      }
+
+      @Override
+      public int getStatusCode() {
+         return response.statusCode();
+      }
+
+      @Override
+      public String getHeader(String name) {
+         return response.headers().firstValue(name).orElse(null);
+      }
+
+      @Override
+      public InputStream getBody() {
+         return response.body();
+      }
+
+      @Override
+      public void close() {
+         try {
+            response.body().close();
+         } catch (IOException ignore) {}
+      }
+   }
+
+   /**
+    * A bounded single producer, single consumer pipe between the thread
+    * writing the body and the executor thread of the client reading it.
+    * Unlike the piped streams of java.io it does not depend on the reading
+    * thread staying alive.
+    */
+   private static class Pipe {
+
+      private static final byte[] EOF   = new byte[0];
+      private static final byte[] ABORT = new byte[0];
+
+      private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(PIPE_CHUNK_COUNT);
+
+      private volatile CompletableFuture<?> sender;
+
+      /**
+       * Makes the reading side fail instead of waiting for more data
+       */
+      void abort() {
+         chunks.clear();
+         chunks.offer(ABORT);
+      }
+
+      final OutputStream out = new OutputStream() {
+
+         private final byte[] buffer = new byte[PIPE_CHUNK_SIZE];
+         private int          count;
+
+         @Override
+         public void write(int b) throws IOException {
+            if (count == buffer.length) {
+               flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+         }
+
+         @Override
+         public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+               if (count == buffer.length) {
+                  flushBuffer();
+               }
+               int n = Math.min(len, buffer.length - count);
+               System.arraycopy(b, off, buffer, count, n);
+               count += n;
+               off += n;
+               len -= n;
+            }
+         }
+
+         @Override
+         public void flush() throws IOException {
+            flushBuffer();
+         }
+
+         @Override
+         public void close() throws IOException {
+            flushBuffer();
+            put(EOF);
+         }
+
+         private void flushBuffer() throws IOException {
+            if (count > 0) {
+               put(Arrays.copyOf(buffer, count));
+               count = 0;
+            }
+         }
+
+         private void put(byte[] chunk) throws IOException {
+            try {
+               while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                  CompletableFuture<?> sender = Pipe.this.sender;
+                  if (sender != null && sender.isDone()) { throw new IOException("Request was terminated before the body was sent"); }
+               }
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new InterruptedIOException();
+            }
+         }
+      };
+
+      final InputStream in = new InputStream() {
+
+         private ByteBuffer current = ByteBuffer.allocate(0);
+         private boolean    done;
+
+         @Override
+         public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+         }
+
+         @Override
+         public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) { return 0; }
+            while (!current.hasRemaining()) {
+               if (done) { return -1; }
+               try {
+                  byte[] chunk = chunks.take();
+                  if (chunk == ABORT) {
+                     chunks.offer(ABORT);
+                     throw new IOException("Sending the request body failed");
+                  } else if (chunk == EOF) {
+                     done = true;
+                  } else {
+                     current = ByteBuffer.wrap(chunk);
+                  }
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  throw new InterruptedIOException();
+               }
+            }
+            int n = Math.min(len, current.remaining());
+            current.get(b, off, n);
+            return n;
+         }
+      };
+   }
+}
@@ -0,0 +1,38 @@
+package org.gitlab.api;
+
+import org.gitlab.api.http.Endpoint;
+
+
+/**
+ * The endpoints {@link GitlabAPI} builds its urls from. Their ids are the
+ * paths of the GitLab documentation and stay the same across releases, so
+ * they can be used to look up metrics, e.g. "GET " + ISSUE_NOTES.getId().
+ */
+public final class Endpoints {
+
+   public static final Endpoint USER = Endpoint.of("/user");
+
+   public static final Endpoint PROJECTS = Endpoint.of("/projects");
+   public static final Endpoint PROJECT  = Endpoint.of("/projects/:id");
+
+   public static final Endpoint ISSUES           = Endpoint.of("/projects/:id/issues");
+   public static final Endpoint ISSUE            = Endpoint.of("/projects/:id/issues/:issue_iid");
+   public static final Endpoint ISSUE_TIME_STATS = Endpoint.of("/projects/:id/issues/:issue_iid/time_stats");
+   public static final Endpoint ISSUE_MOVE       = Endpoint.of("/projects/:id/issues/:issue_iid/move");
+   public static final Endpoint ISSUE_NOTES      = Endpoint.of("/projects/:id/issues/:issue_iid/notes");
+   public static final Endpoint ISSUE_NOTE       = Endpoint.of("/projects/:id/issues/:issue_iid/notes/:note_id");
+
+   public static final Endpoint LABELS = Endpoint.of("/projects/:id/labels");
+
+   public static final Endpoint MILESTONES             = Endpoint.of("/projects/:id/milestones");
+   public static final Endpoint MILESTONE              = Endpoint.of("/projects/:id/milestones/:milestone_id");
+   public static final Endpoint MILESTONE_ISSUES       = Endpoint.of("/projects/:id/milestones/:milestone_id/issues");
+   public static final Endpoint GROUP_MILESTONES       = Endpoint.of("/groups/:id/milestones");
+   public static final Endpoint GROUP_MILESTONE_ISSUES = Endpoint.of("/groups/:id/milestones/:milestone_id/issues");
+
+   public static final Endpoint MEMBERS       = Endpoint.of("/projects/:id/members");
+   public static final Endpoint MEMBER        = Endpoint.of("/projects/:id/members/:user_id");
+   public static final Endpoint GROUP_MEMBERS = Endpoint.of("/groups/:id/members");
+
+   private Endpoints() {}
+}
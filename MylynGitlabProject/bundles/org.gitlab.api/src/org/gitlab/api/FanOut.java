@@ -0,0 +1,123 @@
+package org.gitlab.api;
+
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+
+/**
+ * Fetches the details of many items, e.g. the notes of issues, with a bounded
+ * number of requests in flight. The requests run on an executor, their results
+ * are handed to a {@link Listener} on the calling thread in the order the
+ * requests complete, so listeners need no synchronization. Has a fluent api
+ * for method chaining.
+ *
+ * @param <T>
+ *        The type of the items
+ * @param <R>
+ *        The type of the details
+ */
+public final class FanOut<T, R> {
+
+   /**
+    * How often cancellation is checked while waiting for requests
+    */
+   private static final long POLL_MILLIS = 100;
+
+   private final ExecutorService executor;
+   private final int             concurrency;
+
+   private BooleanSupplier cancelled = () -> false;
+
+   /**
+    * @param concurrency
+    *        The maximum number of requests in flight
+    */
+   public FanOut(ExecutorService executor, int concurrency) {
+      if (concurrency < 1) { throw new IllegalArgumentException("Concurrency must be positive: " + concurrency); }
+      this.executor = executor;
+      this.concurrency = concurrency;
+   }
+
+   /**
+    * @param cancelled
+    *        Polled while running, e.g. IProgressMonitor::isCanceled
+    * @return this
+    */
+   public FanOut<T, R> cancelWhen(BooleanSupplier cancelled) {
+      this.cancelled = cancelled;
+      return this;
+   }
+
+   /**
+    * Fetches the details of all items. A failed request is reported to the
+    * listener and does not stop the others. On cancellation, no further
+    * requests are started and those in flight are abandoned.
+    *
+    * @return true if all items are done, false if cancelled
+    * @throws InterruptedIOException
+    *         if the calling thread is interrupted
+    */
+   public boolean run(Collection<? extends T> items, Request<T, R> request, Listener<T, R> listener) throws InterruptedIOException {
+      CompletionService<R> completion = new ExecutorCompletionService<>(executor);
+      Map<Future<R>, T> inFlight = new HashMap<>();
+      Iterator<? extends T> pending = items.iterator();
+      try {
+         while (true) {
+            if (cancelled.getAsBoolean()) { return false; }
+            while (inFlight.size() < concurrency && pending.hasNext()) {
+               T item = pending.next();
+               inFlight.put(completion.submit(() -> request.fetch(item)), item);
+            }
+            if (inFlight.isEmpty()) { return true; }
+
+            Future<R> done = completion.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (done == null) {
+               continue;
+            }
+            T item = inFlight.remove(done);
+            try {
+               listener.completed(item, done.get());
+            } catch (ExecutionException e) {
+               Throwable cause = e.getCause();
+               if (cause instanceof Error) { throw (Error) cause; }
+               listener.failed(item, (Exception) cause);
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Interrupted while fetching details");
+      } finally {
+         for (Future<R> future : inFlight.keySet()) {
+            future.cancel(true);
+         }
+      }
+   }
+
+   /**
+    * Fetches the details of an item, called on a thread of the executor
+    */
+   public interface Request<T, R> {
+
+      R fetch(T item) throws Exception;
+   }
+
+   /**
+    * Receives the results, called on the thread running the fan out
+    */
+   public interface Listener<T, R> {
+
+      void completed(T item, R result);
+
+      void failed(T item, Exception e);
+   }
+}
@@ -7,19 +7,45 @@ import static org.gitlab.api.http.Method.PUT;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.net.Proxy;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.gitlab.api.graphql.GraphQLClient;
+import org.gitlab.api.http.ConnectionPool;
+import org.gitlab.api.http.Endpoint;
 import org.gitlab.api.http.GitlabHTTPRequestor;
+import org.gitlab.api.http.HttpTransport;
+import org.gitlab.api.http.Interceptor;
 import org.gitlab.api.http.Query;
+import org.gitlab.api.http.RateLimiter;
+import org.gitlab.api.http.RetryPolicy;
+import org.gitlab.api.http.SingleFlight;
+import org.gitlab.api.http.TlsConfig;
+import org.gitlab.api.http.ResponseCache;
+import org.gitlab.api.http.UrlConnectionTransport;
+import org.gitlab.api.metrics.MetricsRegistry;
 import org.gitlab.api.models.CommitComment;
 import org.gitlab.api.models.CreateGroupRequest;
 import org.gitlab.api.models.CreateUserRequest;
@@ -67,6 +93,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 
@@ -80,11 +107,34 @@ public class GitlabAPI {
 
    private static final Logger LOG = LoggerFactory.getLogger(GitlabAPI.class);
 
-   public static final ObjectMapper MAPPER = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+   private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+
+   /**
+    * Decodes the responses. Its readers are cached per type on first use, so
+    * it must be configured before the first request.
+    */
+   public static final ObjectMapper MAPPER = createMapper();
 
    private static final String API_NAMESPACE            = "/api/v4";
    private static final String PARAM_SUDO               = "sudo";
+   private static final String PARAM_STATE              = "state";
+   private static final String PARAM_MILESTONE          = "milestone";
+   private static final String PARAM_ASSIGNEE_USERNAME  = "assignee_username";
+   private static final String PARAM_LABELS             = "labels";
+   private static final String PARAM_SEARCH             = "search";
+   private static final String PARAM_UPDATED_AFTER      = "updated_after";
    private static final String PARAM_MAX_ITEMS_PER_PAGE = new Pagination().withPerPage(Pagination.MAX_ITEMS_PER_PAGE).toString();
+   private static final String PARAM_KEYSET_PAGINATION  = new Pagination().withKeyset("id").withPerPage(Pagination.MAX_ITEMS_PER_PAGE).toString();
+   private static final String HTTP2_TRANSPORT          = "org.gitlab.api.http.HttpClientTransport";
+
+   public static final int DEFAULT_PAGE_CONCURRENCY   = 4;
+   public static final int DEFAULT_DETAIL_CONCURRENCY = 4;
+
+   /**
+    * The size of the first page when requesting the newest notes, small as
+    * usually only a few notes are new. Further pages double in size.
+    */
+   public static final int NEW_NOTES_FIRST_PAGE = 5;
 
    private final String hostUrl;
 
@@ -92,11 +142,26 @@ public class GitlabAPI {
    private final TokenType tokenType;
    private AuthMethod      authMethod;
    private boolean         ignoreCertificateErrors = false;
+   private boolean         http2                   = false;
    private Proxy           proxy;
    private int             defaultTimeout          = 0;
    private int             readTimeout             = defaultTimeout;
    private int             connectionTimeout       = defaultTimeout;
    private String          userAgent               = GitlabAPI.class.getCanonicalName() + "/" + System.getProperty("java.version");
+   private int             maxConnectionsPerHost   = ConnectionPool.DEFAULT_MAX_PER_HOST;
+   private HttpTransport   transport;
+   private int             pageConcurrency         = DEFAULT_PAGE_CONCURRENCY;
+   private int             detailConcurrency       = DEFAULT_DETAIL_CONCURRENCY;
+   private ExecutorService executor;
+   private ResponseCache   responseCache           = new ResponseCache();
+   private RateLimiter     rateLimiter             = new RateLimiter();
+   private RetryPolicy     retryPolicy             = new RetryPolicy();
+   private SingleFlight    singleFlight            = new SingleFlight();
+   private TlsConfig       tlsConfig;
+   private TlsConfig       trustAll;
+   private MetricsRegistry metrics                 = new MetricsRegistry();
+
+   private final List<Interceptor> interceptors = new CopyOnWriteArrayList<>();
 
    private GitlabAPI(String hostUrl, String apiToken, TokenType tokenType, AuthMethod method) {
       this.hostUrl = hostUrl.endsWith("/") ? hostUrl.replaceAll("/$", "") : hostUrl;
@@ -123,11 +188,30 @@ public class GitlabAPI {
       return new GitlabAPI(hostUrl, apiToken, tokenType, method);
    }
 
-   public GitlabAPI ignoreCertificateErrors(boolean ignoreCertificateErrors) {
+   public synchronized GitlabAPI ignoreCertificateErrors(boolean ignoreCertificateErrors) {
       this.ignoreCertificateErrors = ignoreCertificateErrors;
       return this;
    }
 
+   /**
+    * Sends requests with the HTTP/2 capable client of Java 11, which
+    * multiplexes concurrent requests to a host over a single connection.
+    * If the client is not available (e.g. on Java 8) the default transport is
+    * used. Has no effect once the transport has been created.
+    *
+    * @param http2
+    *        true to use the HTTP/2 transport
+    * @return this
+    */
+   public GitlabAPI http2(boolean http2) {
+      this.http2 = http2;
+      return this;
+   }
+
+   public boolean isHttp2() {
+      return http2;
+   }
+
    public GitlabAPI proxy(Proxy proxy) {
       this.proxy = proxy;
       return this;
@@ -179,6 +263,297 @@ public class GitlabAPI {
       return this;
    }
 
+   public int getMaxConnectionsPerHost() {
+      return maxConnectionsPerHost;
+   }
+
+   /**
+    * Limits the number of connections the default transport keeps open to a
+    * single host. Has no effect once the transport has been created.
+    *
+    * @param maxConnectionsPerHost
+    *        The maximum number of concurrent connections per host
+    * @return this
+    */
+   public GitlabAPI setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+      if (maxConnectionsPerHost < 1) {
+         LOG.warn("The value of the \"Max Connections Per Host\" parameter must be positive. " + "The default value [{}] will be used.",
+               ConnectionPool.DEFAULT_MAX_PER_HOST);
+         this.maxConnectionsPerHost = ConnectionPool.DEFAULT_MAX_PER_HOST;
+      } else {
+         this.maxConnectionsPerHost = maxConnectionsPerHost;
+      }
+      return this;
+   }
+
+   /**
+    * Replaces the transport used to send requests.
+    *
+    * @param transport
+    *        The transport, or null to use the default transport
+    * @return this
+    */
+   public synchronized GitlabAPI transport(HttpTransport transport) {
+      this.transport = transport;
+      return this;
+   }
+
+   /**
+    * Returns the transport used to send requests. If none was set, the HTTP/2
+    * transport or a {@link UrlConnectionTransport} with a per-host connection
+    * pool is created.
+    */
+   public synchronized HttpTransport getTransport() {
+      if (transport == null) {
+         transport = createTransport();
+      }
+      return transport;
+   }
+
+   /**
+    * Registers Afterburner if it is available. It replaces the reflective
+    * access to the fields and setters of the models with generated bytecode.
+    */
+   private static ObjectMapper createMapper() {
+      ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+      try {
+         mapper.registerModule((Module) Class.forName(AFTERBURNER_MODULE).getConstructor().newInstance());
+      } catch (ReflectiveOperationException | LinkageError e) {
+         LOG.debug("Afterburner is not available, models are bound by reflection.");
+      }
+      return mapper;
+   }
+
+   /**
+    * Formats a point in time the way GitLab expects it in parameters such as
+    * updated_after, e.g. "2018-03-01T12:30:00.000Z"
+    */
+   public static String iso8601(Date date) {
+      SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+      format.setTimeZone(TimeZone.getTimeZone("UTC"));
+      return format.format(date);
+   }
+
+   private HttpTransport createTransport() {
+      if (http2) {
+         try {
+            return (HttpTransport) Class.forName(HTTP2_TRANSPORT).getConstructor().newInstance();
+         } catch (ReflectiveOperationException | LinkageError e) {
+            LOG.warn("The HTTP/2 transport is not available on this runtime, the default transport will be used.", e);
+         }
+      }
+      return new UrlConnectionTransport(new ConnectionPool(maxConnectionsPerHost, ConnectionPool.DEFAULT_IDLE_TIMEOUT));
+   }
+
+   public int getPageConcurrency() {
+      return pageConcurrency;
+   }
+
+   /**
+    * Sets how many pages of a listing are fetched in parallel once the total
+    * number of pages is known. 1 fetches the pages one after another.
+    *
+    * @param pageConcurrency
+    *        The maximum number of pages in flight per listing
+    * @return this
+    */
+   public GitlabAPI setPageConcurrency(int pageConcurrency) {
+      if (pageConcurrency < 1) {
+         LOG.warn("The value of the \"Page Concurrency\" parameter must be positive. " + "The default value [{}] will be used.",
+               DEFAULT_PAGE_CONCURRENCY);
+         this.pageConcurrency = DEFAULT_PAGE_CONCURRENCY;
+      } else {
+         this.pageConcurrency = pageConcurrency;
+      }
+      return this;
+   }
+
+   public int getDetailConcurrency() {
+      return detailConcurrency;
+   }
+
+   /**
+    * Sets how many requests a {@link #fanOut()} keeps in flight, e.g. for the
+    * notes of many issues. Values above {@link #getMaxConnectionsPerHost()}
+    * only queue for a connection.
+    *
+    * @param detailConcurrency
+    *        The maximum number of requests in flight per fan out
+    * @return this
+    */
+   public GitlabAPI setDetailConcurrency(int detailConcurrency) {
+      if (detailConcurrency < 1) {
+         LOG.warn("The value of the \"Detail Concurrency\" parameter must be positive. " + "The default value [{}] will be used.",
+               DEFAULT_DETAIL_CONCURRENCY);
+         this.detailConcurrency = DEFAULT_DETAIL_CONCURRENCY;
+      } else {
+         this.detailConcurrency = detailConcurrency;
+      }
+      return this;
+   }
+
+   /**
+    * Creates a stage fetching the details of many items in parallel on the
+    * executor of this api, with up to {@link #getDetailConcurrency()}
+    * requests in flight.
+    */
+   public <T, R> FanOut<T, R> fanOut() {
+      return new FanOut<>(getExecutor(), detailConcurrency);
+   }
+
+   /**
+    * Returns the executor running the background requests of this api, like
+    * prefetched pages. Its threads are daemon threads.
+    */
+   public synchronized ExecutorService getExecutor() {
+      if (executor == null) {
+         final AtomicInteger count = new AtomicInteger();
+         executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "gitlab-api-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+         });
+      }
+      return executor;
+   }
+
+   /**
+    * Replaces the cache GET responses are validated against with their ETag.
+    * By default responses are cached in memory only.
+    *
+    * @param responseCache
+    *        The cache, or null to disable conditional requests
+    * @return this
+    */
+   public synchronized GitlabAPI responseCache(ResponseCache responseCache) {
+      this.responseCache = responseCache;
+      return this;
+   }
+
+   public synchronized ResponseCache getResponseCache() {
+      return responseCache;
+   }
+
+   /**
+    * Replaces the scheduler pacing requests by the rate limit the server
+    * announces.
+    *
+    * @param rateLimiter
+    *        The scheduler, or null to send requests regardless of the limit
+    * @return this
+    */
+   public synchronized GitlabAPI rateLimiter(RateLimiter rateLimiter) {
+      this.rateLimiter = rateLimiter;
+      return this;
+   }
+
+   public synchronized RateLimiter getRateLimiter() {
+      return rateLimiter;
+   }
+
+   /**
+    * Replaces the policy deciding which failed requests are sent again.
+    *
+    * @param retryPolicy
+    *        The policy, or null to fail on the first error
+    * @return this
+    */
+   public synchronized GitlabAPI retryPolicy(RetryPolicy retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+   }
+
+   public synchronized RetryPolicy getRetryPolicy() {
+      return retryPolicy;
+   }
+
+   /**
+    * Replaces the layer coalescing concurrent identical GET requests.
+    *
+    * @param singleFlight
+    *        The layer, or null to send every request
+    * @return this
+    */
+   public synchronized GitlabAPI singleFlight(SingleFlight singleFlight) {
+      this.singleFlight = singleFlight;
+      return this;
+   }
+
+   public synchronized SingleFlight getSingleFlight() {
+      return singleFlight;
+   }
+
+   /**
+    * Sets the TLS settings of the connections, e.g. to trust a custom store.
+    *
+    * @param tlsConfig
+    *        The settings, or null for the defaults of the JVM
+    * @return this
+    */
+   public synchronized GitlabAPI tlsConfig(TlsConfig tlsConfig) {
+      this.tlsConfig = tlsConfig;
+      return this;
+   }
+
+   /**
+    * Returns the TLS settings of the connections. If certificate errors are
+    * ignored and none were set, settings trusting everything are created once
+    * for this api.
+    *
+    * @return The settings, or null for the defaults of the JVM
+    */
+   public synchronized TlsConfig getTlsConfig() {
+      if (tlsConfig != null) { return tlsConfig; }
+      if (!ignoreCertificateErrors) { return null; }
+      if (trustAll == null) {
+         trustAll = TlsConfig.trustAll();
+      }
+      return trustAll;
+   }
+
+   /**
+    * Replaces the registry the requests of this api are recorded in.
+    *
+    * @param metrics
+    *        The registry, or null to record nothing
+    * @return this
+    */
+   public synchronized GitlabAPI metrics(MetricsRegistry metrics) {
+      this.metrics = metrics;
+      return this;
+   }
+
+   public synchronized MetricsRegistry getMetrics() {
+      return metrics;
+   }
+
+   /**
+    * Appends an interceptor to the chain every request of this api passes
+    * through, interceptors added first see the request first.
+    *
+    * @return this
+    */
+   public GitlabAPI interceptor(Interceptor interceptor) {
+      interceptors.add(interceptor);
+      return this;
+   }
+
+   public GitlabAPI removeInterceptor(Interceptor interceptor) {
+      interceptors.remove(interceptor);
+      return this;
+   }
+
+   public List<Interceptor> getInterceptors() {
+      return Collections.unmodifiableList(interceptors);
+   }
+
+   /**
+    * @return A client of the GraphQL api of the same server
+    */
+   public GraphQLClient graphql() {
+      return new GraphQLClient(this);
+   }
+
    public GitlabHTTPRequestor retrieve() {
       return new GitlabHTTPRequestor(this).authenticate(apiToken, tokenType, authMethod);
    }
@@ -219,6 +594,15 @@ public class GitlabAPI {
       return retrieve().getAll(tailUrl, GitlabUser[].class);
    }
 
+   /**
+    * Lazy variant of {@link #getUsers()}, pages are fetched as the stream is consumed.
+    * The stream must be closed to cancel the pages prefetched ahead.
+    */
+   public Stream<GitlabUser> streamUsers() {
+      String tailUrl = GitlabUser.URL + PARAM_MAX_ITEMS_PER_PAGE;
+      return retrieve().stream(tailUrl, GitlabUser[].class);
+   }
+
    /**
     * Finds users by email address or username.
     *
@@ -864,10 +1248,19 @@ public class GitlabAPI {
     * @return A list of gitlab projects
     */
    public List<GitlabProject> getAllProjects() {
-      String tailUrl = GitlabProject.URL;
+      String tailUrl = GitlabProject.URL + PARAM_KEYSET_PAGINATION;
       return retrieve().getAll(tailUrl, GitlabProject[].class);
    }
 
+   /**
+    * Lazy variant of {@link #getAllProjects()}, pages are fetched as the stream is consumed.
+    * The stream must be closed to cancel the pages prefetched ahead.
+    */
+   public Stream<GitlabProject> streamAllProjects() {
+      String tailUrl = GitlabProject.URL + PARAM_KEYSET_PAGINATION;
+      return retrieve().stream(tailUrl, GitlabProject[].class);
+   }
+
    /**
     * Get Project by project Id
     *
@@ -878,8 +1271,7 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public GitlabProject getProject(Serializable projectId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId);
-      return retrieve().to(tailUrl, GitlabProject.class);
+      return retrieve().to(Endpoints.PROJECT.url(projectId), GitlabProject.class);
    }
 
    /**
@@ -912,8 +1304,15 @@ public class GitlabAPI {
     * @return A list of gitlab projects
     */
    public List<GitlabProject> getProjects() {
-      String tailUrl = GitlabProject.URL + PARAM_MAX_ITEMS_PER_PAGE;
-      return retrieve().getAll(tailUrl, GitlabProject[].class);
+      return retrieve().getAll(Endpoints.PROJECTS.url().query(Pagination.PARAM_PER_PAGE, Pagination.MAX_ITEMS_PER_PAGE), GitlabProject[].class);
+   }
+
+   /**
+    * Lazy variant of {@link #getProjects()}, pages are fetched as the stream is consumed.
+    * The stream must be closed to cancel the pages prefetched ahead.
+    */
+   public Stream<GitlabProject> streamProjects() {
+      return retrieve().stream(Endpoints.PROJECTS.url().query(Pagination.PARAM_PER_PAGE, Pagination.MAX_ITEMS_PER_PAGE), GitlabProject[].class);
    }
 
    /**
@@ -1208,7 +1607,8 @@ public class GitlabAPI {
    }
 
    /**
-    * Get build artifacts of a project build
+    * Get build artifacts of a project build.
+    * The whole content is held in memory, see {@link #getJobArtifact(Integer, Integer, WritableByteChannel, ProgressListener)} to stream it.
     *
     * @param projectId
     *        The Project's Id
@@ -1218,8 +1618,44 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public byte[] getJobArtifact(Integer projectId, Integer jobId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabJob.URL + "/" + jobId + "/artifacts";
-      return retrieve().to(tailUrl, byte[].class);
+      return retrieve().to(jobArtifactUrl(projectId, jobId), byte[].class);
+   }
+
+   /**
+    * Like {@link #getJobArtifact(Integer, Integer, WritableByteChannel, ProgressListener)}, writing to a stream that is not closed.
+    */
+   public long getJobArtifact(Integer projectId, Integer jobId, OutputStream out, ProgressListener listener) throws IOException {
+      return retrieve().download(jobArtifactUrl(projectId, jobId), out, listener);
+   }
+
+   /**
+    * Get build artifacts of a project build, streaming it into the given sink
+    *
+    * @param projectId
+    *        The Project's Id
+    * @param jobId
+    *        The build's Id
+    * @param channel
+    *        The channel to write to, it is not closed
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api call error
+    */
+   public long getJobArtifact(Integer projectId, Integer jobId, WritableByteChannel channel, ProgressListener listener) throws IOException {
+      return retrieve().download(jobArtifactUrl(projectId, jobId), channel, listener);
+   }
+
+   /**
+    * Like {@link #getJobArtifact(Integer, Integer, WritableByteChannel, ProgressListener)}, writing to a file that is replaced, and deleted if the download fails.
+    */
+   public long getJobArtifact(Integer projectId, Integer jobId, Path target, ProgressListener listener) throws IOException {
+      return retrieve().download(jobArtifactUrl(projectId, jobId), target, listener);
+   }
+
+   private String jobArtifactUrl(Integer projectId, Integer jobId) {
+      return GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabJob.URL + "/" + jobId + "/artifacts";
    }
 
    /**
@@ -1237,7 +1673,8 @@ public class GitlabAPI {
    }
 
    /**
-    * Get build trace of a project build
+    * Get build trace of a project build.
+    * The whole content is held in memory, see {@link #getJobTrace(Integer, Integer, WritableByteChannel, ProgressListener)} to stream it.
     *
     * @param projectId
     *        The Project's Id
@@ -1247,8 +1684,44 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public byte[] getJobTrace(Integer projectId, Integer jobId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabJob.URL + "/" + jobId + "/trace";
-      return retrieve().to(tailUrl, byte[].class);
+      return retrieve().to(jobTraceUrl(projectId, jobId), byte[].class);
+   }
+
+   /**
+    * Like {@link #getJobTrace(Integer, Integer, WritableByteChannel, ProgressListener)}, writing to a stream that is not closed.
+    */
+   public long getJobTrace(Integer projectId, Integer jobId, OutputStream out, ProgressListener listener) throws IOException {
+      return retrieve().download(jobTraceUrl(projectId, jobId), out, listener);
+   }
+
+   /**
+    * Get build trace of a project build, streaming it into the given sink
+    *
+    * @param projectId
+    *        The Project's Id
+    * @param jobId
+    *        The build's Id
+    * @param channel
+    *        The channel to write to, it is not closed
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api call error
+    */
+   public long getJobTrace(Integer projectId, Integer jobId, WritableByteChannel channel, ProgressListener listener) throws IOException {
+      return retrieve().download(jobTraceUrl(projectId, jobId), channel, listener);
+   }
+
+   /**
+    * Like {@link #getJobTrace(Integer, Integer, WritableByteChannel, ProgressListener)}, writing to a file that is replaced, and deleted if the download fails.
+    */
+   public long getJobTrace(Integer projectId, Integer jobId, Path target, ProgressListener listener) throws IOException {
+      return retrieve().download(jobTraceUrl(projectId, jobId), target, listener);
+   }
+
+   private String jobTraceUrl(Integer projectId, Integer jobId) {
+      return GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabJob.URL + "/" + jobId + "/trace";
    }
 
    /**
@@ -1626,6 +2099,15 @@ public class GitlabAPI {
       return retrieve().getAll(tailUrl, GitlabMergeRequest[].class);
    }
 
+   /**
+    * Lazy variant of {@link #getAllMergeRequests(GitlabProject)}, pages are fetched as the stream is consumed.
+    * The stream must be closed to cancel the pages prefetched ahead.
+    */
+   public Stream<GitlabMergeRequest> streamAllMergeRequests(GitlabProject project) {
+      String tailUrl = GitlabProject.URL + "/" + project.getId() + GitlabMergeRequest.URL;
+      return retrieve().stream(tailUrl, GitlabMergeRequest[].class);
+   }
+
    /**
     * Get information about the approvals present and required for a merge request
     * EE only.
@@ -1879,6 +2361,18 @@ public class GitlabAPI {
    }
 
    public List<GitlabCommit> getAllCommits(Serializable projectId, Pagination pagination, String branchOrTag) throws IOException {
+      return retrieve().getAll(allCommitsUrl(projectId, pagination, branchOrTag), GitlabCommit[].class);
+   }
+
+   /**
+    * Lazy variant of {@link #getAllCommits(Serializable, Pagination, String)}, pages are fetched as the stream is consumed.
+    * The stream must be closed to cancel the pages prefetched ahead.
+    */
+   public Stream<GitlabCommit> streamAllCommits(Serializable projectId, Pagination pagination, String branchOrTag) throws IOException {
+      return retrieve().stream(allCommitsUrl(projectId, pagination, branchOrTag), GitlabCommit[].class);
+   }
+
+   private String allCommitsUrl(Serializable projectId, Pagination pagination, String branchOrTag) throws IOException {
       final Query query = new Query();
       if (branchOrTag != null) {
          query.append("ref_name", branchOrTag);
@@ -1888,8 +2382,7 @@ public class GitlabAPI {
          query.mergeWith(pagination.asQuery());
       }
 
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + "/repository" + GitlabCommit.URL + query;
-      return retrieve().getAll(tailUrl, GitlabCommit[].class);
+      return GitlabProject.URL + "/" + sanitizeProjectId(projectId) + "/repository" + GitlabCommit.URL + query;
    }
 
    // List commit diffs for a project ID and commit hash
@@ -1973,7 +2466,8 @@ public class GitlabAPI {
    }
 
    /**
-    * Get raw file content
+    * Get raw file content.
+    * The whole content is held in memory, see {@link #getRawFileContent(Serializable, String, String, WritableByteChannel, ProgressListener)} to stream it.
     *
     * @param projectId
     *        The Project
@@ -1985,15 +2479,53 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public byte[] getRawFileContent(Serializable projectId, String sha, String filepath) throws IOException {
+      return retrieve().to(rawFileContentUrl(projectId, sha, filepath), byte[].class);
+   }
+
+   /**
+    * Like {@link #getRawFileContent(Serializable, String, String, WritableByteChannel, ProgressListener)}, writing to a stream that is not closed.
+    */
+   public long getRawFileContent(Serializable projectId, String sha, String filepath, OutputStream out, ProgressListener listener) throws IOException {
+      return retrieve().download(rawFileContentUrl(projectId, sha, filepath), out, listener);
+   }
+
+   /**
+    * Get raw file content, streaming it into the given sink
+    *
+    * @param projectId
+    *        The Project
+    * @param sha
+    *        The commit or branch name
+    * @param filepath
+    *        The path of the file
+    * @param channel
+    *        The channel to write to, it is not closed
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api call error
+    */
+   public long getRawFileContent(Serializable projectId, String sha, String filepath, WritableByteChannel channel, ProgressListener listener) throws IOException {
+      return retrieve().download(rawFileContentUrl(projectId, sha, filepath), channel, listener);
+   }
+
+   /**
+    * Like {@link #getRawFileContent(Serializable, String, String, WritableByteChannel, ProgressListener)}, writing to a file that is replaced, and deleted if the download fails.
+    */
+   public long getRawFileContent(Serializable projectId, String sha, String filepath, Path target, ProgressListener listener) throws IOException {
+      return retrieve().download(rawFileContentUrl(projectId, sha, filepath), target, listener);
+   }
+
+   private String rawFileContentUrl(Serializable projectId, String sha, String filepath) throws IOException {
       Query query = new Query().append("ref", sha);
 
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + "/repository/files/" + sanitizePath(filepath) + "/raw" + query
-            .toString();
-      return retrieve().to(tailUrl, byte[].class);
+      return GitlabProject.URL + "/" + sanitizeProjectId(projectId) + "/repository/files/" + sanitizePath(filepath) + "/raw" + query.toString();
    }
 
    /**
     * Get the raw file contents for a blob by blob SHA.
+    * The whole content is held in memory, see {@link #getRawBlobContent(GitlabProject, String, WritableByteChannel, ProgressListener)} to stream it.
     *
     * @param project
     *        The Project
@@ -2003,12 +2535,49 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public byte[] getRawBlobContent(GitlabProject project, String sha) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + project.getId() + "/repository/blobs/" + sha + "/raw";
-      return retrieve().to(tailUrl, byte[].class);
+      return retrieve().to(rawBlobContentUrl(project, sha), byte[].class);
    }
 
    /**
-    * Get an archive of the repository
+    * Like {@link #getRawBlobContent(GitlabProject, String, WritableByteChannel, ProgressListener)}, writing to a stream that is not closed.
+    */
+   public long getRawBlobContent(GitlabProject project, String sha, OutputStream out, ProgressListener listener) throws IOException {
+      return retrieve().download(rawBlobContentUrl(project, sha), out, listener);
+   }
+
+   /**
+    * Get the raw file contents for a blob by blob SHA, streaming it into the given sink
+    *
+    * @param project
+    *        The Project
+    * @param sha
+    *        The commit or branch name
+    * @param channel
+    *        The channel to write to, it is not closed
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api call error
+    */
+   public long getRawBlobContent(GitlabProject project, String sha, WritableByteChannel channel, ProgressListener listener) throws IOException {
+      return retrieve().download(rawBlobContentUrl(project, sha), channel, listener);
+   }
+
+   /**
+    * Like {@link #getRawBlobContent(GitlabProject, String, WritableByteChannel, ProgressListener)}, writing to a file that is replaced, and deleted if the download fails.
+    */
+   public long getRawBlobContent(GitlabProject project, String sha, Path target, ProgressListener listener) throws IOException {
+      return retrieve().download(rawBlobContentUrl(project, sha), target, listener);
+   }
+
+   private String rawBlobContentUrl(GitlabProject project, String sha) {
+      return GitlabProject.URL + "/" + project.getId() + "/repository/blobs/" + sha + "/raw";
+   }
+
+   /**
+    * Get an archive of the repository.
+    * The whole content is held in memory, see {@link #getFileArchive(GitlabProject, WritableByteChannel, ProgressListener)} to stream it.
     *
     * @param project
     *        The Project
@@ -2016,8 +2585,42 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public byte[] getFileArchive(GitlabProject project) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + project.getId() + "/repository/archive";
-      return retrieve().to(tailUrl, byte[].class);
+      return retrieve().to(fileArchiveUrl(project), byte[].class);
+   }
+
+   /**
+    * Like {@link #getFileArchive(GitlabProject, WritableByteChannel, ProgressListener)}, writing to a stream that is not closed.
+    */
+   public long getFileArchive(GitlabProject project, OutputStream out, ProgressListener listener) throws IOException {
+      return retrieve().download(fileArchiveUrl(project), out, listener);
+   }
+
+   /**
+    * Get an archive of the repository, streaming it into the given sink
+    *
+    * @param project
+    *        The Project
+    * @param channel
+    *        The channel to write to, it is not closed
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api call error
+    */
+   public long getFileArchive(GitlabProject project, WritableByteChannel channel, ProgressListener listener) throws IOException {
+      return retrieve().download(fileArchiveUrl(project), channel, listener);
+   }
+
+   /**
+    * Like {@link #getFileArchive(GitlabProject, WritableByteChannel, ProgressListener)}, writing to a file that is replaced, and deleted if the download fails.
+    */
+   public long getFileArchive(GitlabProject project, Path target, ProgressListener listener) throws IOException {
+      return retrieve().download(fileArchiveUrl(project), target, listener);
+   }
+
+   private String fileArchiveUrl(GitlabProject project) {
+      return GitlabProject.URL + "/" + project.getId() + "/repository/archive";
    }
 
    /**
@@ -2312,51 +2915,77 @@ public class GitlabAPI {
    }
 
    public List<GitlabIssue> getIssues(Serializable projectId) {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabIssue.URL + PARAM_MAX_ITEMS_PER_PAGE;
-      return retrieve().getAll(tailUrl, GitlabIssue[].class);
+      return retrieve().getAll(Endpoints.ISSUES.url(projectId).query(Pagination.PARAM_PER_PAGE, Pagination.MAX_ITEMS_PER_PAGE), GitlabIssue[].class);
+   }
+
+   /**
+    * Gets the issues of a project updated after a point in time, most recently
+    * updated first.
+    *
+    * @param updatedAfter
+    *        The inclusive lower bound of updated_at, or null for all issues
+    */
+   public List<GitlabIssue> getIssues(Serializable projectId, Date updatedAfter) {
+      return getIssues(projectId, new IssueFilter().withUpdatedAfter(updatedAfter));
+   }
+
+   /**
+    * Gets the issues of a project matching a filter, most recently updated first.
+    */
+   public List<GitlabIssue> getIssues(Serializable projectId, IssueFilter filter) {
+      String labels = filter.getLabels().isEmpty() ? null : String.join(",", filter.getLabels());
+      String updatedAfter = filter.getUpdatedAfter() != null ? iso8601(filter.getUpdatedAfter()) : null;
+      Endpoint.Url url = Endpoints.ISSUES.url(projectId).query(PARAM_STATE, filter.getState()).query(PARAM_MILESTONE, filter.getMilestone());
+      url.query(PARAM_ASSIGNEE_USERNAME, filter.getAssigneeUsername()).query(PARAM_LABELS, labels).query(PARAM_SEARCH, filter.getSearch());
+      url.query(PARAM_UPDATED_AFTER, updatedAfter).query(Pagination.PARAM_ORDER_BY, "updated_at").query(Pagination.PARAM_PER_PAGE,
+            Pagination.MAX_ITEMS_PER_PAGE);
+      return retrieve().getAll(url, GitlabIssue[].class);
+   }
+
+   /**
+    * Lazy variant of {@link #getIssues(Serializable)}, pages are fetched as the stream is consumed.
+    * The stream must be closed to cancel the pages prefetched ahead.
+    */
+   public Stream<GitlabIssue> streamIssues(Serializable projectId) {
+      return retrieve().stream(Endpoints.ISSUES.url(projectId).query(Pagination.PARAM_PER_PAGE, Pagination.MAX_ITEMS_PER_PAGE), GitlabIssue[].class);
    }
 
    public List<GitlabIssue> getIssues(GitlabProject project, GitlabMilestone milestone) {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(project.getId()) + GitlabMilestone.URL + "/" + sanitizeMilestoneId(milestone
-            .getId()) + GitlabIssue.URL + PARAM_MAX_ITEMS_PER_PAGE;
-      return retrieve().getAll(tailUrl, GitlabIssue[].class);
+      Endpoint.Url url = Endpoints.MILESTONE_ISSUES.url(project.getId(), milestone.getId()).query(Pagination.PARAM_PER_PAGE,
+            Pagination.MAX_ITEMS_PER_PAGE);
+      return retrieve().getAll(url, GitlabIssue[].class);
    }
 
    public List<GitlabIssue> getIssues(GitlabGroup group, GitlabMilestone milestone) {
-      String tailUrl = GitlabGroup.URL + "/" + sanitizeGroupId(group.getId()) + GitlabMilestone.URL + "/" + sanitizeMilestoneId(milestone.getId()) +
-                       GitlabIssue.URL + PARAM_MAX_ITEMS_PER_PAGE;
-      return retrieve().getAll(tailUrl, GitlabIssue[].class);
+      Endpoint.Url url = Endpoints.GROUP_MILESTONE_ISSUES.url(group.getId(), milestone.getId()).query(Pagination.PARAM_PER_PAGE,
+            Pagination.MAX_ITEMS_PER_PAGE);
+      return retrieve().getAll(url, GitlabIssue[].class);
    }
 
    public GitlabIssue getIssue(Serializable projectId, Integer issueId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabIssue.URL + "/" + issueId;
-      return retrieve().to(tailUrl, GitlabIssue.class);
+      return retrieve().to(Endpoints.ISSUE.url(projectId, issueId), GitlabIssue.class);
    }
 
    public GitlabIssueTimeStats getIssueTimeStats(Serializable projectId, Integer issueId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabIssue.URL + "/" + issueId + GitlabIssueTimeStats.URL;
-      return retrieve().to(tailUrl, GitlabIssueTimeStats.class);
+      return retrieve().to(Endpoints.ISSUE_TIME_STATS.url(projectId, issueId), GitlabIssueTimeStats.class);
    }
 
    public GitlabIssue createIssue(int projectId, int assigneeId, Integer milestoneId, String labels, String description, String title)
          throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + projectId + GitlabIssue.URL;
       GitlabHTTPRequestor requestor = dispatch();
       applyIssue(requestor, projectId, assigneeId, milestoneId, labels, description, title);
 
-      return requestor.to(tailUrl, GitlabIssue.class);
+      return requestor.to(Endpoints.ISSUES.url(projectId), GitlabIssue.class);
    }
 
    public GitlabIssue moveIssue(Integer projectId, Integer issueId, Integer toProjectId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + projectId + GitlabIssue.URL + "/" + issueId + "/move";
       GitlabHTTPRequestor requestor = dispatch();
       requestor.with("to_project_id", toProjectId);
-      return requestor.to(tailUrl, GitlabIssue.class);
+      return requestor.to(Endpoints.ISSUE_MOVE.url(projectId, issueId), GitlabIssue.class);
    }
 
    public GitlabIssue editIssue(int projectId, int issueId, int assigneeId, int milestoneId, String labels, String description, String title,
          GitlabIssue.Action action) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + projectId + GitlabIssue.URL + "/" + issueId;
       GitlabHTTPRequestor requestor = retrieve().method(PUT);
       applyIssue(requestor, projectId, assigneeId, milestoneId, labels, description, title);
 
@@ -2364,7 +2993,7 @@ public class GitlabAPI {
          requestor.with("state_event", action.toString().toLowerCase());
       }
 
-      return requestor.to(tailUrl, GitlabIssue.class);
+      return requestor.to(Endpoints.ISSUE.url(projectId, issueId), GitlabIssue.class);
    }
 
    private void applyIssue(GitlabHTTPRequestor requestor, int projectId, int assigneeId, Integer milestoneId, String labels, String description,
@@ -2378,18 +3007,90 @@ public class GitlabAPI {
    }
 
    public GitlabNote getNote(GitlabIssue issue, Integer noteId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + issue.getProjectId() + GitlabIssue.URL + "/" + issue.getIid() + GitlabNote.URL + "/" + noteId;
-      return retrieve().to(tailUrl, GitlabNote.class);
+      return retrieve().to(Endpoints.ISSUE_NOTE.url(issue.getProjectId(), issue.getIid(), noteId), GitlabNote.class);
    }
 
+   /**
+    * Returns all notes of an issue in the default order of the server, newest
+    * first, requesting as many pages as needed.
+    */
    public List<GitlabNote> getNotes(GitlabIssue issue) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + issue.getProjectId() + GitlabIssue.URL + "/" + issue.getIid() + GitlabNote.URL;
-      return Arrays.asList(retrieve().to(tailUrl, GitlabNote[].class));
+      Endpoint.Url url = Endpoints.ISSUE_NOTES.url(issue.getProjectId(), issue.getIid()).query(Pagination.PARAM_PER_PAGE, Pagination.MAX_ITEMS_PER_PAGE);
+      return retrieve().getAll(url, GitlabNote[].class);
+   }
+
+   /**
+    * Returns all notes of an issue, requesting as many pages as needed.
+    *
+    * @param orderBy
+    *        {@link GitlabNote#ORDER_BY_CREATED_AT} or {@link GitlabNote#ORDER_BY_UPDATED_AT}
+    * @param sort
+    *        {@link Pagination#SORT_ASC} or {@link Pagination#SORT_DESC}
+    */
+   public List<GitlabNote> getNotes(GitlabIssue issue, String orderBy, String sort) throws IOException {
+      Endpoint.Url url = Endpoints.ISSUE_NOTES.url(issue.getProjectId(), issue.getIid()).query(Pagination.PARAM_ORDER_BY, orderBy).query(
+            Pagination.PARAM_SORT, sort).query(Pagination.PARAM_PER_PAGE, Pagination.MAX_ITEMS_PER_PAGE);
+      return retrieve().getAll(url, GitlabNote[].class);
+   }
+
+   /**
+    * Returns the notes of an issue created after a note, oldest first. The
+    * newest notes are requested first and paging stops at the known note, so
+    * a single small page usually suffices.
+    *
+    * @param noteId
+    *        The id of the newest known note
+    */
+   public List<GitlabNote> getNotesAfter(GitlabIssue issue, Integer noteId) throws IOException {
+      return getNewestNotes(issue, GitlabNote.ORDER_BY_CREATED_AT, note -> note.getId() > noteId);
+   }
+
+   /**
+    * Returns the notes of an issue created or edited since a point in time,
+    * least recently updated first. Like {@link #getNotesAfter(GitlabIssue, Integer)},
+    * paging stops at the first older note.
+    *
+    * @param since
+    *        The inclusive lower bound of updated_at
+    */
+   public List<GitlabNote> getNotesUpdatedSince(GitlabIssue issue, Date since) throws IOException {
+      return getNewestNotes(issue, GitlabNote.ORDER_BY_UPDATED_AT, note -> !updatedAt(note).before(since));
+   }
+
+   private List<GitlabNote> getNewestNotes(GitlabIssue issue, String orderBy, Predicate<GitlabNote> isNew) throws IOException {
+      Map<Integer, GitlabNote> notes = new LinkedHashMap<>();
+      int offset = 0;
+      int perPage = NEW_NOTES_FIRST_PAGE;
+      while (true) {
+         Endpoint.Url url = Endpoints.ISSUE_NOTES.url(issue.getProjectId(), issue.getIid()).query(Pagination.PARAM_ORDER_BY, orderBy).query(
+               Pagination.PARAM_SORT, Pagination.SORT_DESC).query(Pagination.PARAM_PER_PAGE, perPage).query(Pagination.PARAM_PAGE, offset / perPage + 1);
+         GitlabNote[] newest = retrieve().to(url, GitlabNote[].class);
+         for (GitlabNote note : newest) {
+            if (!isNew.test(note)) { return reversed(notes.values()); }
+            // Notes created while paging shift the pages, so a note may show up twice
+            notes.putIfAbsent(note.getId(), note);
+         }
+         if (newest.length < perPage) { return reversed(notes.values()); }
+         offset += perPage;
+         // The pages stay aligned, as the offset is a multiple of the new size
+         if (offset <= Pagination.MAX_ITEMS_PER_PAGE) {
+            perPage = offset;
+         }
+      }
+   }
+
+   private static Date updatedAt(GitlabNote note) {
+      return note.getUpdatedAt() != null ? note.getUpdatedAt() : note.getCreatedAt();
+   }
+
+   private static <T> List<T> reversed(Collection<T> items) {
+      List<T> list = new ArrayList<>(items);
+      Collections.reverse(list);
+      return list;
    }
 
    public GitlabNote createNote(Serializable projectId, Integer issueId, String message) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabIssue.URL + "/" + issueId + GitlabNote.URL;
-      return dispatch().with("body", message).to(tailUrl, GitlabNote.class);
+      return dispatch().with("body", message).to(Endpoints.ISSUE_NOTES.url(projectId, issueId), GitlabNote.class);
    }
 
    public GitlabNote createNote(GitlabIssue issue, String message) throws IOException {
@@ -2409,9 +3110,7 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public void deleteNote(Serializable projectId, Integer issueId, GitlabNote noteToDelete) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabIssue.URL + "/" + issueId + GitlabNote.URL + "/" + noteToDelete
-            .getId();
-      retrieve().method(DELETE).to(tailUrl, GitlabNote.class);
+      retrieve().method(DELETE).to(Endpoints.ISSUE_NOTE.url(projectId, issueId, noteToDelete.getId()), GitlabNote.class);
    }
 
    /**
@@ -2616,8 +3315,7 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public List<GitlabLabel> getLabels(Serializable projectId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabLabel.URL;
-      GitlabLabel[] labels = retrieve().to(tailUrl, GitlabLabel[].class);
+      GitlabLabel[] labels = retrieve().to(Endpoints.LABELS.url(projectId), GitlabLabel[].class);
       return Arrays.asList(labels);
    }
 
@@ -2648,8 +3346,7 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public GitlabLabel createLabel(Serializable projectId, String name, String color) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabLabel.URL;
-      return dispatch().with("name", name).with("color", color).to(tailUrl, GitlabLabel.class);
+      return dispatch().with("name", name).with("color", color).to(Endpoints.LABELS.url(projectId), GitlabLabel.class);
    }
 
    /**
@@ -2678,10 +3375,7 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public void deleteLabel(Serializable projectId, String name) throws IOException {
-      Query query = new Query();
-      query.append("name", name);
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabLabel.URL + query.toString();
-      retrieve().method(DELETE).to(tailUrl, Void.class);
+      retrieve().method(DELETE).to(Endpoints.LABELS.url(projectId).query("name", name), Void.class);
    }
 
    /**
@@ -2714,7 +3408,6 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public GitlabLabel updateLabel(Serializable projectId, String name, String newName, String newColor) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabLabel.URL;
       GitlabHTTPRequestor requestor = retrieve().method(PUT);
       requestor.with("name", name);
       if (newName != null) {
@@ -2723,7 +3416,7 @@ public class GitlabAPI {
       if (newColor != null) {
          requestor = requestor.with("color", newColor);
       }
-      return requestor.to(tailUrl, GitlabLabel.class);
+      return requestor.to(Endpoints.LABELS.url(projectId), GitlabLabel.class);
    }
 
    public List<GitlabMilestone> getMilestones(GitlabProject project) throws IOException {
@@ -2735,13 +3428,11 @@ public class GitlabAPI {
    }
 
    public List<GitlabMilestone> getProjectMilestones(Serializable projectId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabMilestone.URL;
-      return Arrays.asList(retrieve().to(tailUrl, GitlabMilestone[].class));
+      return Arrays.asList(retrieve().to(Endpoints.MILESTONES.url(projectId), GitlabMilestone[].class));
    }
 
    public List<GitlabMilestone> getGroupMilestones(Serializable groupId) throws IOException {
-      String tailUrl = GitlabGroup.URL + "/" + sanitizeGroupId(groupId) + GitlabMilestone.URL;
-      return Arrays.asList(retrieve().to(tailUrl, GitlabMilestone[].class));
+      return Arrays.asList(retrieve().to(Endpoints.GROUP_MILESTONES.url(groupId), GitlabMilestone[].class));
    }
 
    /**
@@ -2908,8 +3599,7 @@ public class GitlabAPI {
     */
    public GitlabProjectMember addProjectMember(Integer projectId, Integer userId, GitlabAccessLevel accessLevel) throws IOException {
       Query query = new Query().appendIf("id", projectId).appendIf("user_id", userId).appendIf("access_level", accessLevel);
-      String tailUrl = GitlabProject.URL + "/" + projectId + GitlabProjectMember.URL + query.toString();
-      return dispatch().to(tailUrl, GitlabProjectMember.class);
+      return dispatch().to(Endpoints.MEMBERS.url(projectId).query(query), GitlabProjectMember.class);
    }
 
    /**
@@ -2937,8 +3627,7 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public void deleteProjectMember(Integer projectId, Integer userId) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + projectId + "/" + GitlabProjectMember.URL + "/" + userId;
-      retrieve().method(DELETE).to(tailUrl, Void.class);
+      retrieve().method(DELETE).to(Endpoints.MEMBER.url(projectId, userId), Void.class);
    }
 
    /**
@@ -2976,8 +3665,7 @@ public class GitlabAPI {
    public GitlabProjectMember updateProjectMember(Integer projectId, Integer userId, GitlabAccessLevel accessLevel, String expiresAt)
          throws IOException {
       Query query = new Query().appendIf("access_level", accessLevel).appendIf("expires_at", expiresAt);
-      String tailUrl = GitlabProject.URL + "/" + projectId + GitlabProjectMember.URL + "/" + userId + query.toString();
-      return retrieve().method(PUT).to(tailUrl, GitlabProjectMember.class);
+      return retrieve().method(PUT).to(Endpoints.MEMBER.url(projectId, userId).query(query), GitlabProjectMember.class);
    }
 
    public List<GitlabProjectMember> getProjectMembers(GitlabProject project) throws IOException {
@@ -2993,8 +3681,7 @@ public class GitlabAPI {
    }
 
    public List<GitlabProjectMember> getProjectMembers(Serializable projectId, Pagination pagination) throws IOException {
-      String tailUrl = GitlabProject.URL + "/" + sanitizeProjectId(projectId) + GitlabProjectMember.URL + pagination.asQuery();
-      return Arrays.asList(retrieve().to(tailUrl, GitlabProjectMember[].class));
+      return Arrays.asList(retrieve().to(Endpoints.MEMBERS.url(projectId).query(pagination.asQuery()), GitlabProjectMember[].class));
    }
 
    /**
@@ -3020,8 +3707,7 @@ public class GitlabAPI {
     *         on gitlab api call error
     */
    public List<GitlabProjectMember> getNamespaceMembers(Integer namespaceId) throws IOException {
-      String tailUrl = GitlabGroup.URL + "/" + namespaceId + GitlabProjectMember.URL;
-      return Arrays.asList(retrieve().to(tailUrl, GitlabProjectMember[].class));
+      return Arrays.asList(retrieve().to(Endpoints.GROUP_MEMBERS.url(namespaceId), GitlabProjectMember[].class));
    }
 
    /**
@@ -3111,8 +3797,7 @@ public class GitlabAPI {
    }
 
    public GitlabSession getCurrentSession() throws IOException {
-      String tailUrl = "/user";
-      return retrieve().to(tailUrl, GitlabSession.class);
+      return retrieve().to(Endpoints.USER.url(), GitlabSession.class);
    }
 
    /**
@@ -3170,10 +3855,6 @@ public class GitlabAPI {
       return sanitizeId(groupId, "groupId");
    }
 
-   private String sanitizeMilestoneId(Serializable milestoneId) {
-      return sanitizeId(milestoneId, "milestoneId");
-   }
-
    private String sanitizeId(Serializable id, String parameterName) {
       if (!(id instanceof String) && !(id instanceof Number)) { throw new IllegalArgumentException(parameterName +
                                                                                                    " needs to be of type String or Number"); }
@@ -0,0 +1,114 @@
+package org.gitlab.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+
+/**
+ * The criteria GitLab filters the issues of a project by on the server, sent
+ * as parameters of the REST api. Criteria left null are not sent. Has a fluent
+ * api for method chaining.
+ */
+public final class IssueFilter {
+
+   private String       state;
+   private String       milestone;
+   private String       assigneeUsername;
+   private List<String> labels = new ArrayList<>();
+   private String       search;
+   private Date         updatedAfter;
+
+   /**
+    * @param state
+    *        {@link org.gitlab.api.models.GitlabIssue#STATE_OPENED} or
+    *        {@link org.gitlab.api.models.GitlabIssue#STATE_CLOSED}, or null for both
+    */
+   public IssueFilter withState(String state) {
+      this.state = state;
+      return this;
+   }
+
+   /**
+    * @param milestone
+    *        The title of the milestone
+    */
+   public IssueFilter withMilestone(String milestone) {
+      this.milestone = milestone;
+      return this;
+   }
+
+   public IssueFilter withAssigneeUsername(String assigneeUsername) {
+      this.assigneeUsername = assigneeUsername;
+      return this;
+   }
+
+   /**
+    * Adds a label the issues must have, all added labels must be present
+    */
+   public IssueFilter withLabel(String label) {
+      labels.add(label);
+      return this;
+   }
+
+   /**
+    * @param search
+    *        Text to search for in the title and description
+    */
+   public IssueFilter withSearch(String search) {
+      this.search = search;
+      return this;
+   }
+
+   /**
+    * @param updatedAfter
+    *        The inclusive lower bound of updated_at
+    */
+   public IssueFilter withUpdatedAfter(Date updatedAfter) {
+      this.updatedAfter = updatedAfter;
+      return this;
+   }
+
+   public String getState() {
+      return state;
+   }
+
+   public String getMilestone() {
+      return milestone;
+   }
+
+   public String getAssigneeUsername() {
+      return assigneeUsername;
+   }
+
+   public List<String> getLabels() {
+      return Collections.unmodifiableList(labels);
+   }
+
+   public String getSearch() {
+      return search;
+   }
+
+   public Date getUpdatedAfter() {
+      return updatedAfter;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder string = new StringBuilder("IssueFilter[");
+      append(string, "state", state);
+      append(string, "milestone", milestone);
+      append(string, "assignee_username", assigneeUsername);
+      append(string, "labels", labels.isEmpty() ? null : String.join(",", labels));
+      append(string, "search", search);
+      append(string, "updated_after", updatedAfter != null ? GitlabAPI.iso8601(updatedAfter) : null);
+      return string.append(']').toString();
+   }
+
+   private static void append(StringBuilder string, String name, String value) {
+      if (value != null) {
+         string.append(string.charAt(string.length() - 1) == '[' ? "" : ", ").append(name).append('=').append(value);
+      }
+   }
+}
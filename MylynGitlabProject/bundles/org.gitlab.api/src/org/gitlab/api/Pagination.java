@@ -7,6 +7,12 @@ import java.io.UnsupportedEncodingException;
 public class Pagination {
     public static final String PARAM_PAGE = "page";
     public static final String PARAM_PER_PAGE = "per_page";
+    public static final String PARAM_PAGINATION = "pagination";
+    public static final String PARAM_ORDER_BY = "order_by";
+    public static final String PARAM_SORT = "sort";
+    public static final String PAGINATION_KEYSET = "keyset";
+    public static final String SORT_ASC = "asc";
+    public static final String SORT_DESC = "desc";
     public static final int MAX_ITEMS_PER_PAGE = 100;
     private final Query paginationQuery = new Query();
 
@@ -27,6 +33,28 @@ public class Pagination {
         }
     }
     
+    /**
+     * Switches to keyset pagination, where the server seeks to the next page by
+     * the last seen key instead of skipping an offset, so deep pages cost the
+     * same as the first. Only supported by some endpoints (e.g. projects),
+     * others ignore it and paginate by offset.
+     *
+     * @param orderBy The key to paginate by, e.g. "id"
+     */
+    public void setKeyset(String orderBy) {
+        try {
+            paginationQuery.append(PARAM_PAGINATION, PAGINATION_KEYSET);
+            paginationQuery.append(PARAM_ORDER_BY, orderBy);
+            paginationQuery.append(PARAM_SORT, SORT_ASC);
+        } catch (UnsupportedEncodingException ignored) {
+        }
+    }
+
+    public Pagination withKeyset(String orderBy) {
+        setKeyset(orderBy);
+        return this;
+    }
+
     public Pagination withPage(int page) {
         setPage(page);
         return this;
@@ -0,0 +1,17 @@
+package org.gitlab.api;
+
+/**
+ * Receives progress updates of a streamed transfer
+ */
+public interface ProgressListener {
+
+   /**
+    * Called after each chunk that was transferred.
+    *
+    * @param transferred
+    *        The number of bytes transferred so far
+    * @param total
+    *        The total number of bytes or -1 if unknown
+    */
+   void progress(long transferred, long total);
+}
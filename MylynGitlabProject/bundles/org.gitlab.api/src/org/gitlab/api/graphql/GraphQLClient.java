@@ -0,0 +1,172 @@
+package org.gitlab.api.graphql;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.models.GitlabNote;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+
+/**
+ * Client of the GraphQL api of GitLab (POST /api/graphql). It shares the
+ * transport, authentication and metrics of its {@link GitlabAPI}.
+ * Unlike the REST api, one query can fetch issues together with their notes,
+ * labels and assignees, so a project is read in a handful of requests instead
+ * of one request per issue. Servers without GraphQL answer with a
+ * {@link java.io.FileNotFoundException}, queries the schema of the server does
+ * not support with a {@link GraphQLException}.
+ */
+public class GraphQLClient {
+
+   public static final String URL = "/api/graphql";
+
+   /**
+    * GitLab rejects queries above a complexity limit, which nested connections
+    * reach quickly, so pages are kept moderate
+    */
+   public static final int DEFAULT_ISSUES_PER_PAGE = 20;
+   public static final int DEFAULT_NOTES_PER_PAGE  = 50;
+
+   private final GitlabAPI api;
+
+   private int issuesPerPage = DEFAULT_ISSUES_PER_PAGE;
+   private int notesPerPage  = DEFAULT_NOTES_PER_PAGE;
+
+   public GraphQLClient(GitlabAPI api) {
+      this.api = api;
+   }
+
+   public GraphQLClient issuesPerPage(int issuesPerPage) {
+      this.issuesPerPage = issuesPerPage;
+      return this;
+   }
+
+   public GraphQLClient notesPerPage(int notesPerPage) {
+      this.notesPerPage = notesPerPage;
+      return this;
+   }
+
+   /**
+    * Runs a query.
+    *
+    * @param query
+    *        The GraphQL document
+    * @param variables
+    *        The variables of the query, may be null
+    * @return The data of the response
+    * @throws GraphQLException
+    *         if the server reports errors
+    * @throws IOException
+    *         on gitlab api error
+    */
+   public JsonNode query(String query, Map<String, Object> variables) throws IOException {
+      JsonNode response = api.dispatch().with("query", query).with("variables", variables).to(api.getUrl(URL), JsonNode.class, null);
+      if (response == null) { throw new GraphQLException(Collections.singletonList("Empty response")); }
+
+      JsonNode errors = response.path("errors");
+      if (errors.size() > 0) {
+         List<String> messages = new ArrayList<>();
+         for (JsonNode error : errors) {
+            messages.add(error.path("message").asText());
+         }
+         throw new GraphQLException(messages);
+      }
+      return response.path("data");
+   }
+
+   /**
+    * Fetches all issues of a project with their notes, labels and assignees.
+    * Issues are paged by cursor, notes beyond the first page of an issue are
+    * fetched with further queries for that issue.
+    *
+    * @param projectPath
+    *        The full path of the project, e.g. "group/project"
+    * @return The issues with their notes
+    * @throws IOException
+    *         on gitlab api error
+    */
+   public List<IssueWithNotes> getIssuesWithNotes(String projectPath) throws IOException {
+      return getIssuesWithNotes(projectPath, IssueQuery.ISSUES, new HashMap<>());
+   }
+
+   /**
+    * Fetches issues of a project by their iids with their notes, labels and
+    * assignees, in one request per page of issues rather than requests per
+    * issue.
+    *
+    * @param projectPath
+    *        The full path of the project, e.g. "group/project"
+    * @param iids
+    *        The iids of the issues
+    * @return The issues found with their notes, issues that do not exist are
+    *         left out
+    * @throws IOException
+    *         on gitlab api error
+    */
+   public List<IssueWithNotes> getIssuesWithNotes(String projectPath, Collection<Integer> iids) throws IOException {
+      List<String> values = new ArrayList<>(iids.size());
+      for (Integer iid : iids) {
+         values.add(String.valueOf(iid));
+      }
+      Map<String, Object> variables = new HashMap<>();
+      variables.put("iids", values);
+      return getIssuesWithNotes(projectPath, IssueQuery.ISSUES_BY_IID, variables);
+   }
+
+   private List<IssueWithNotes> getIssuesWithNotes(String projectPath, String query, Map<String, Object> variables) throws IOException {
+      List<IssueWithNotes> issues = new ArrayList<>();
+      variables.put("fullPath", projectPath);
+      variables.put("first", issuesPerPage);
+      variables.put("notes", notesPerPage);
+
+      while (true) {
+         JsonNode connection = project(query(query, variables), projectPath).path("issues");
+         for (JsonNode node : connection.path("nodes")) {
+            issues.add(new IssueWithNotes(IssueQuery.issue(node), notes(projectPath, node)));
+         }
+         JsonNode pageInfo = connection.path("pageInfo");
+         if (!pageInfo.path("hasNextPage").asBoolean()) { return issues; }
+         variables.put("after", pageInfo.path("endCursor").asText());
+      }
+   }
+
+   /**
+    * Collects the notes of an issue, following their cursor if the issue has
+    * more than fit into the issue query
+    */
+   private List<GitlabNote> notes(String projectPath, JsonNode issue) throws IOException {
+      List<GitlabNote> notes = new ArrayList<>();
+      JsonNode connection = issue.path("notes");
+      Map<String, Object> variables = null;
+      while (true) {
+         for (JsonNode node : connection.path("nodes")) {
+            notes.add(IssueQuery.note(node));
+         }
+         JsonNode pageInfo = connection.path("pageInfo");
+         if (!pageInfo.path("hasNextPage").asBoolean()) { return notes; }
+
+         if (variables == null) {
+            variables = new HashMap<>();
+            variables.put("fullPath", projectPath);
+            variables.put("iid", issue.path("iid").asText());
+            variables.put("first", notesPerPage);
+         }
+         variables.put("after", pageInfo.path("endCursor").asText());
+         connection = project(query(IssueQuery.ISSUE_NOTES, variables), projectPath).path("issue").path("notes");
+      }
+   }
+
+   private static JsonNode project(JsonNode data, String projectPath) throws IOException {
+      JsonNode project = data.path("project");
+      if (!project.isObject()) { throw new FileNotFoundException("Project " + projectPath); }
+      return project;
+   }
+}
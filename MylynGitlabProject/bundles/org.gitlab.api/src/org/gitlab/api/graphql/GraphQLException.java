@@ -0,0 +1,26 @@
+package org.gitlab.api.graphql;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * The errors a GraphQL request was answered with, e.g. because the schema of
+ * an older server does not know a field of the query.
+ */
+public class GraphQLException extends IOException {
+
+   private static final long serialVersionUID = 1L;
+
+   private final List<String> errors;
+
+   public GraphQLException(List<String> errors) {
+      super(String.join("; ", errors));
+      this.errors = Collections.unmodifiableList(errors);
+   }
+
+   public List<String> getErrors() {
+      return errors;
+   }
+}
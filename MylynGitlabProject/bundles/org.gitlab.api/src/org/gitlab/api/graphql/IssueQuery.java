@@ -0,0 +1,140 @@
+package org.gitlab.api.graphql;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabMilestone;
+import org.gitlab.api.models.GitlabNote;
+import org.gitlab.api.models.GitlabUser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+
+/**
+ * The queries for issues and their notes, and the mapping of the results
+ * onto the models of the REST api
+ */
+class IssueQuery {
+
+   private static final String USER = "{ id username name }";
+
+   private static final String NOTES = "pageInfo { hasNextPage endCursor } nodes { id body system createdAt updatedAt author " + USER + " }";
+
+   static final String ISSUES = issues("", "");
+
+   /**
+    * Like {@link #ISSUES}, but only the issues with the iids in $iids
+    */
+   static final String ISSUES_BY_IID = issues(", $iids: [String!]", ", iids: $iids");
+
+   static final String ISSUE_NOTES = "query($fullPath: ID!, $iid: String!, $first: Int!, $after: String) {\n" +
+                                     "  project(fullPath: $fullPath) {\n" +
+                                     "    issue(iid: $iid) {\n" +
+                                     "      notes(first: $first, after: $after) { " + NOTES + " }\n" +
+                                     "    }\n" +
+                                     "  }\n" +
+                                     "}";
+
+   private IssueQuery() {}
+
+   private static String issues(String parameters, String arguments) {
+      return "query($fullPath: ID!, $first: Int!, $after: String, $notes: Int!" + parameters + ") {\n" +
+             "  project(fullPath: $fullPath) {\n" +
+             "    issues(first: $first, after: $after" + arguments + ") {\n" +
+             "      pageInfo { hasNextPage endCursor }\n" +
+             "      nodes {\n" +
+             "        id iid projectId title description state confidential discussionLocked userNotesCount\n" +
+             "        createdAt updatedAt\n" +
+             "        author " + USER + "\n" +
+             "        assignees { nodes " + USER + " }\n" +
+             "        milestone { id title }\n" +
+             "        labels { nodes { title } }\n" +
+             "        notes(first: $notes) { " + NOTES + " }\n" +
+             "      }\n" +
+             "    }\n" +
+             "  }\n" +
+             "}";
+   }
+
+   static GitlabIssue issue(JsonNode node) {
+      GitlabIssue issue = new GitlabIssue();
+      issue.setId(id(node.path("id")));
+      issue.setIid(node.path("iid").asInt());
+      issue.setProjectId(node.path("projectId").asInt());
+      issue.setTitle(text(node.path("title")));
+      issue.setDescription(text(node.path("description")));
+      issue.setState(text(node.path("state")));
+      issue.setConfidential(node.path("confidential").asBoolean());
+      issue.setDiscussionLocked(node.path("discussionLocked").asBoolean());
+      issue.setUserNotesCount(node.path("userNotesCount").isNumber() ? node.path("userNotesCount").asInt() : null);
+      issue.setCreatedAt(date(node.path("createdAt")));
+      issue.setUpdatedAt(date(node.path("updatedAt")));
+      issue.setAuthor(user(node.path("author")));
+
+      List<GitlabUser> assignees = new ArrayList<>();
+      for (JsonNode assignee : node.path("assignees").path("nodes")) {
+         assignees.add(user(assignee));
+      }
+      issue.setAssignees(assignees);
+      issue.setAssignee(assignees.isEmpty() ? null : assignees.get(0));
+
+      JsonNode milestoneNode = node.path("milestone");
+      if (milestoneNode.isObject()) {
+         GitlabMilestone milestone = new GitlabMilestone();
+         milestone.setId(id(milestoneNode.path("id")));
+         milestone.setTitle(text(milestoneNode.path("title")));
+         issue.setMilestone(milestone);
+      }
+
+      List<String> labels = new ArrayList<>();
+      for (JsonNode label : node.path("labels").path("nodes")) {
+         labels.add(label.path("title").asText());
+      }
+      issue.setLabels(labels.toArray(new String[labels.size()]));
+      return issue;
+   }
+
+   static GitlabNote note(JsonNode node) {
+      GitlabNote note = new GitlabNote();
+      note.setId(id(node.path("id")));
+      note.setBody(text(node.path("body")));
+      note.setSystem(node.path("system").asBoolean());
+      note.setCreatedAt(date(node.path("createdAt")));
+      note.setUpdatedAt(date(node.path("updatedAt")));
+      note.setAuthor(user(node.path("author")));
+      return note;
+   }
+
+   private static GitlabUser user(JsonNode node) {
+      if (!node.isObject()) { return null; }
+      GitlabUser user = new GitlabUser();
+      user.setId(id(node.path("id")));
+      user.setUsername(text(node.path("username")));
+      user.setName(text(node.path("name")));
+      return user;
+   }
+
+   /**
+    * GraphQL identifies objects by global ids such as "gid://gitlab/Issue/42",
+    * the REST api by the number at their end
+    */
+   private static int id(JsonNode node) {
+      String id = node.asText();
+      try {
+         return Integer.parseInt(id.substring(id.lastIndexOf('/') + 1));
+      } catch (NumberFormatException e) {
+         return 0;
+      }
+   }
+
+   private static String text(JsonNode node) {
+      return node.isTextual() ? node.asText() : null;
+   }
+
+   private static Date date(JsonNode node) {
+      return node.isTextual() ? GitlabAPI.MAPPER.convertValue(node, Date.class) : null;
+   }
+}
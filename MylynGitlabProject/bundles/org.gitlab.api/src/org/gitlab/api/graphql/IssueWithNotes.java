@@ -0,0 +1,30 @@
+package org.gitlab.api.graphql;
+
+import java.util.List;
+
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabNote;
+
+
+/**
+ * An issue together with all of its notes, as fetched by
+ * {@link GraphQLClient#getIssuesWithNotes(String)}
+ */
+public class IssueWithNotes {
+
+   private final GitlabIssue      issue;
+   private final List<GitlabNote> notes;
+
+   public IssueWithNotes(GitlabIssue issue, List<GitlabNote> notes) {
+      this.issue = issue;
+      this.notes = notes;
+   }
+
+   public GitlabIssue getIssue() {
+      return issue;
+   }
+
+   public List<GitlabNote> getNotes() {
+      return notes;
+   }
+}
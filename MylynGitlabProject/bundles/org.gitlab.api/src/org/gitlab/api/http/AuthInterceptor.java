@@ -0,0 +1,41 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.net.URL;
+
+import org.gitlab.api.AuthMethod;
+import org.gitlab.api.TokenType;
+
+
+/**
+ * Built-in interceptor adding the token of the api to each request, as
+ * header or as url parameter
+ */
+class AuthInterceptor implements Interceptor {
+
+   private final String     apiToken;
+   private final TokenType  tokenType;
+   private final AuthMethod authMethod;
+
+   AuthInterceptor(String apiToken, TokenType tokenType, AuthMethod authMethod) {
+      this.apiToken = apiToken;
+      this.tokenType = tokenType;
+      this.authMethod = authMethod;
+   }
+
+   @Override
+   public TransportResponse intercept(Chain chain) throws IOException {
+      TransportRequest request = chain.request();
+      if (authMethod == AuthMethod.URL_PARAMETER) {
+         String urlWithAuth = request.getUrl().toString();
+         // Urls taken from Link headers already carry the token
+         if (!urlWithAuth.matches(".*[?&]" + tokenType.getTokenParamName() + "=.*")) {
+            urlWithAuth = urlWithAuth + (urlWithAuth.indexOf('?') > 0 ? '&' : '?') + tokenType.getTokenParamName() + "=" + apiToken;
+            request.url(new URL(urlWithAuth));
+         }
+      } else if (authMethod == AuthMethod.HEADER) {
+         request.header(tokenType.getTokenHeaderName(), String.format(tokenType.getTokenHeaderFormat(), apiToken));
+      }
+      return chain.proceed(request);
+   }
+}
@@ -0,0 +1,96 @@
+package org.gitlab.api.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.io.IOUtils;
+
+
+/**
+ * A response whose body has been read into memory
+ */
+class BufferedResponse implements TransportResponse {
+
+   /**
+    * The headers kept with a body, the ones the requestor looks at after the
+    * exchange
+    */
+   static final String[] HEADERS = { "Content-Type", "Content-Encoding", "ETag", "Link", "X-Page", "X-Per-Page", "X-Next-Page", "X-Prev-Page",
+                                     "X-Total", "X-Total-Pages" };
+
+   private final URL                 url;
+   private final int                 statusCode;
+   private final Map<String, String> headers;
+   private final byte[]              body;
+
+   BufferedResponse(URL url, int statusCode, Map<String, String> headers, byte[] body) {
+      this.url = url;
+      this.statusCode = statusCode;
+      this.headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      this.headers.putAll(headers);
+      this.body = body;
+   }
+
+   /**
+    * Reads the body of a response and closes it.
+    */
+   static BufferedResponse of(TransportResponse response) throws IOException {
+      if (response instanceof BufferedResponse) { return (BufferedResponse) response; }
+      Map<String, String> headers = headers(response);
+      try (InputStream in = response.getBody()) {
+         return new BufferedResponse(response.getUrl(), response.getStatusCode(), headers, in != null ? IOUtils.toByteArray(in) : new byte[0]);
+      } finally {
+         response.close();
+      }
+   }
+
+   /**
+    * @return The {@link #HEADERS} the response carries
+    */
+   static Map<String, String> headers(TransportResponse response) {
+      Map<String, String> headers = new HashMap<>();
+      for (String name : HEADERS) {
+         String value = response.getHeader(name);
+         if (value != null) {
+            headers.put(name, value);
+         }
+      }
+      return headers;
+   }
+
+   @Override
+   public URL getUrl() {
+      return url;
+   }
+
+   @Override
+   public int getStatusCode() {
+      return statusCode;
+   }
+
+   @Override
+   public String getHeader(String name) {
+      return headers.get(name);
+   }
+
+   Map<String, String> getHeaders() {
+      return headers;
+   }
+
+   byte[] getBytes() {
+      return body;
+   }
+
+   @Override
+   public InputStream getBody() {
+      return new ByteArrayInputStream(body);
+   }
+
+   @Override
+   public void close() {}
+}
@@ -0,0 +1,71 @@
+package org.gitlab.api.http;
+
+/**
+ * Immutable snapshot of the state of a {@link ResponseCache}
+ */
+public class CacheMetrics {
+
+   private final int  entries;
+   private final long memoryBytes;
+   private final long diskBytes;
+   private final long hits;
+   private final long misses;
+   private final long stores;
+   private final long evictions;
+
+   public CacheMetrics(int entries, long memoryBytes, long diskBytes, long hits, long misses, long stores, long evictions) {
+      this.entries = entries;
+      this.memoryBytes = memoryBytes;
+      this.diskBytes = diskBytes;
+      this.hits = hits;
+      this.misses = misses;
+      this.stores = stores;
+      this.evictions = evictions;
+   }
+
+   /**
+    * @return The number of responses held in memory
+    */
+   public int getEntries() {
+      return entries;
+   }
+
+   public long getMemoryBytes() {
+      return memoryBytes;
+   }
+
+   public long getDiskBytes() {
+      return diskBytes;
+   }
+
+   /**
+    * @return The number of requests answered with 304 Not Modified and served from the cache
+    */
+   public long getHits() {
+      return hits;
+   }
+
+   /**
+    * @return The number of cacheable requests the server answered with a full body
+    */
+   public long getMisses() {
+      return misses;
+   }
+
+   public long getStores() {
+      return stores;
+   }
+
+   /**
+    * @return The number of responses dropped from memory to stay within the limit
+    */
+   public long getEvictions() {
+      return evictions;
+   }
+
+   @Override
+   public String toString() {
+      return "CacheMetrics [entries=" + entries + ", memoryBytes=" + memoryBytes + ", diskBytes=" + diskBytes + ", hits=" + hits + ", misses=" +
+             misses + ", stores=" + stores + ", evictions=" + evictions + "]";
+   }
+}
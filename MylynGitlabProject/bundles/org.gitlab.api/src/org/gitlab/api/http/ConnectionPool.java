@@ -0,0 +1,207 @@
+package org.gitlab.api.http;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Per host bookkeeping of the persistent connections used by the
+ * {@link UrlConnectionTransport}.
+ * The sockets themselves are kept alive by the JDK keep-alive cache, which
+ * only holds a limited number of idle connections per host (http.maxConnections)
+ * and only reuses a socket if the previous response was fully read and the
+ * connection was not disconnected. This pool leases at most maxPerHost
+ * connections per host at the same time, so every connection handed back fits
+ * into the keep-alive cache, and drops the state of hosts that were idle for
+ * longer than the idle timeout.
+ */
+public class ConnectionPool {
+
+   /**
+    * Matches the capacity of the JDK keep-alive cache per host
+    */
+   public static final int  DEFAULT_MAX_PER_HOST = Integer.getInteger("http.maxConnections", 5);
+   public static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
+   private final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<>();
+
+   private final int  maxPerHost;
+   private final long idleTimeout;
+
+   private final AtomicLong acquired  = new AtomicLong();
+   private final AtomicLong released  = new AtomicLong();
+   private final AtomicLong discarded = new AtomicLong();
+   private final AtomicLong waits     = new AtomicLong();
+   private final AtomicLong waitNanos = new AtomicLong();
+   private final AtomicLong reaped    = new AtomicLong();
+
+   private volatile long lastReap = System.currentTimeMillis();
+
+   public ConnectionPool() {
+      this(DEFAULT_MAX_PER_HOST, DEFAULT_IDLE_TIMEOUT);
+   }
+
+   /**
+    * @param maxPerHost
+    *        The maximum number of connections leased per host at the same time
+    * @param idleTimeout
+    *        The time in milliseconds after which an unused host is dropped
+    */
+   public ConnectionPool(int maxPerHost, long idleTimeout) {
+      if (maxPerHost < 1) { throw new IllegalArgumentException("maxPerHost must be at least 1"); }
+      this.maxPerHost = maxPerHost;
+      this.idleTimeout = idleTimeout;
+   }
+
+   public int getMaxPerHost() {
+      return maxPerHost;
+   }
+
+   public long getIdleTimeout() {
+      return idleTimeout;
+   }
+
+   /**
+    * Leases a connection slot for the host of the given url, blocking while all
+    * slots of that host are in use.
+    *
+    * @param url
+    *        The url to connect to
+    * @param timeout
+    *        The maximum time in milliseconds to wait for a free slot, 0 waits forever
+    * @return The lease, which has to be released after use
+    * @throws InterruptedIOException
+    *         if the timeout elapsed or the thread was interrupted while waiting
+    */
+   public Lease acquire(URL url, long timeout) throws InterruptedIOException {
+      reapIdle();
+
+      String key = key(url);
+      Host host;
+      synchronized (this) {
+         host = hosts.computeIfAbsent(key, k -> new Host(maxPerHost));
+         host.pending.incrementAndGet();
+      }
+
+      try {
+         if (!host.slots.tryAcquire()) {
+            long start = System.nanoTime();
+            waits.incrementAndGet();
+            try {
+               if (timeout > 0) {
+                  if (!host.slots.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                     throw new SocketTimeoutException("Timed out waiting for a connection to " + key);
+                  }
+               } else {
+                  host.slots.acquire();
+               }
+            } finally {
+               waitNanos.addAndGet(System.nanoTime() - start);
+            }
+         }
+      } catch (InterruptedException e) {
+         host.pending.decrementAndGet();
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Interrupted while waiting for a connection to " + key);
+      } catch (InterruptedIOException e) {
+         host.pending.decrementAndGet();
+         throw e;
+      }
+
+      acquired.incrementAndGet();
+      return new Lease(host);
+   }
+
+   /**
+    * Drops the state of all hosts without leased connections that have not been
+    * used within the idle timeout. Runs at most once per idle timeout unless
+    * called directly.
+    */
+   public void reapIdle() {
+      long now = System.currentTimeMillis();
+      if (now - lastReap < idleTimeout) { return; }
+      lastReap = now;
+
+      synchronized (this) {
+         Iterator<Map.Entry<String, Host>> it = hosts.entrySet().iterator();
+         while (it.hasNext()) {
+            Host host = it.next().getValue();
+            if (host.pending.get() == 0 && now - host.lastUsed > idleTimeout) {
+               it.remove();
+               reaped.incrementAndGet();
+            }
+         }
+      }
+   }
+
+   /**
+    * @return A snapshot of the current pool state
+    */
+   public PoolMetrics getMetrics() {
+      int leased = 0;
+      for (Host host : hosts.values()) {
+         leased += maxPerHost - host.slots.availablePermits();
+      }
+      return new PoolMetrics(maxPerHost, hosts.size(), leased, acquired.get(), released.get(), discarded.get(), waits.get(), TimeUnit.NANOSECONDS
+            .toMillis(waitNanos.get()), reaped.get());
+   }
+
+   private static String key(URL url) {
+      int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+      return url.getProtocol() + "://" + url.getHost() + ":" + port;
+   }
+
+   private static class Host {
+
+      final Semaphore     slots;
+      final AtomicInteger pending = new AtomicInteger();
+
+      volatile long lastUsed = System.currentTimeMillis();
+
+      Host(int maxPerHost) {
+         this.slots = new Semaphore(maxPerHost, true);
+      }
+   }
+
+   /**
+    * A leased connection slot
+    */
+   public class Lease {
+
+      private final Host          host;
+      private final AtomicBoolean done = new AtomicBoolean();
+
+      private Lease(Host host) {
+         this.host = host;
+      }
+
+      /**
+       * Returns the slot to the pool. Only the first call has an effect.
+       *
+       * @param reusable
+       *        false if the connection was closed instead of being kept alive
+       */
+      public void release(boolean reusable) {
+         if (!done.compareAndSet(false, true)) { return; }
+
+         if (reusable) {
+            released.incrementAndGet();
+         } else {
+            discarded.incrementAndGet();
+         }
+         host.lastUsed = System.currentTimeMillis();
+         host.slots.release();
+         host.pending.decrementAndGet();
+      }
+   }
+}
@@ -0,0 +1,207 @@
+package org.gitlab.api.http;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A url template of the REST api, written like in the GitLab documentation,
+ * e.g. "/projects/:id/issues/:issue_iid/notes". The template is parsed once,
+ * {@link #url(Object...)} then only appends the literal parts and the encoded
+ * parameters to a single builder. The template doubles as the id of the
+ * endpoint, metrics are recorded under it instead of an id derived from every
+ * url.
+ */
+public final class Endpoint {
+
+   private static final int PARAMETER_LENGTH = 16;
+
+   private final String   template;
+   /**
+    * The literal before each parameter, the last one follows the last parameter
+    */
+   private final String[] literals;
+   private final String[] parameters;
+   private final String[] ids = new String[Method.values().length];
+
+   private Endpoint(String template) {
+      if (!template.startsWith("/")) { throw new IllegalArgumentException("Template must start with /: " + template); }
+      List<String> literals = new ArrayList<>();
+      List<String> parameters = new ArrayList<>();
+      StringBuilder literal = new StringBuilder();
+      for (String segment : template.substring(1).split("/", -1)) {
+         literal.append('/');
+         if (segment.startsWith(":")) {
+            if (segment.length() == 1) { throw new IllegalArgumentException("Unnamed parameter in " + template); }
+            literals.add(literal.toString());
+            parameters.add(segment.substring(1));
+            literal.setLength(0);
+         } else {
+            literal.append(segment);
+         }
+      }
+      literals.add(literal.toString());
+      this.template = template;
+      this.literals = literals.toArray(new String[literals.size()]);
+      this.parameters = parameters.toArray(new String[parameters.size()]);
+   }
+
+   /**
+    * @param template
+    *        The path below the api namespace, parameters are segments starting with a colon
+    */
+   public static Endpoint of(String template) {
+      return new Endpoint(template);
+   }
+
+   /**
+    * @return The template, e.g. "/projects/:id/issues"
+    */
+   public String getId() {
+      return template;
+   }
+
+   /**
+    * @return The id of a request to this endpoint, e.g. "GET /projects/:id/issues"
+    */
+   public String getId(Method method) {
+      String id = ids[method.ordinal()];
+      if (id == null) {
+         // Racing threads compute the same string
+         id = method.name() + ' ' + template;
+         ids[method.ordinal()] = id;
+      }
+      return id;
+   }
+
+   public List<String> getParameters() {
+      return Collections.unmodifiableList(Arrays.asList(parameters));
+   }
+
+   /**
+    * Fills in the path parameters.
+    *
+    * @param values
+    *        The values of the parameters in the order of the template, each a
+    *        String or a Number
+    * @return The url, to which query parameters can be added
+    */
+   public Url url(Object... values) {
+      if (values.length != parameters.length) { throw new IllegalArgumentException(template + " takes " + parameters.length +
+                                                                                    " parameters, got " + values.length); }
+      StringBuilder url = new StringBuilder(template.length() + values.length * PARAMETER_LENGTH);
+      for (int i = 0; i < values.length; i++) {
+         url.append(literals[i]);
+         appendParameter(url, parameters[i], values[i]);
+      }
+      url.append(literals[values.length]);
+      return new Url(this, url);
+   }
+
+   @Override
+   public String toString() {
+      return template;
+   }
+
+   private static void appendParameter(StringBuilder url, String name, Object value) {
+      if (value instanceof Integer || value instanceof Long) {
+         url.append(((Number) value).longValue());
+      } else if (value instanceof Number) {
+         url.append(value);
+      } else if (value instanceof String) {
+         appendEncoded(url, (String) value);
+      } else {
+         throw new IllegalArgumentException(name + " needs to be of type String or Number");
+      }
+   }
+
+   /**
+    * Appends the value as is if it only contains unreserved characters,
+    * otherwise encoded. Spaces are encoded as %20, as a + in the path is taken
+    * literally.
+    */
+   static void appendEncoded(StringBuilder url, String value) {
+      if (isUnreserved(value)) {
+         url.append(value);
+         return;
+      }
+      try {
+         url.append(URLEncoder.encode(value, "UTF-8").replace("+", "%20"));
+      } catch (UnsupportedEncodingException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private static boolean isUnreserved(String value) {
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '.' || c == '_' || c == '~')) { return false; }
+      }
+      return true;
+   }
+
+   /**
+    * The url of a request to an {@link Endpoint}, relative to the api namespace.
+    * Has a fluent api for method chaining.
+    */
+   public static final class Url {
+
+      private final Endpoint      endpoint;
+      private final StringBuilder url;
+
+      private boolean hasQuery;
+
+      Url(Endpoint endpoint, StringBuilder url) {
+         this.endpoint = endpoint;
+         this.url = url;
+      }
+
+      public Endpoint getEndpoint() {
+         return endpoint;
+      }
+
+      /**
+       * Appends a query parameter, unless the value is null.
+       *
+       * @param name
+       *        The name of the parameter, it is not encoded
+       * @param value
+       *        The value, encoded unless it is a number
+       * @return this
+       */
+      public Url query(String name, Object value) {
+         if (value == null) { return this; }
+         url.append(hasQuery ? '&' : '?').append(name).append('=');
+         hasQuery = true;
+         if (value instanceof Integer || value instanceof Long) {
+            url.append(((Number) value).longValue());
+         } else {
+            appendEncoded(url, value.toString());
+         }
+         return this;
+      }
+
+      /**
+       * Appends the parameters of a query
+       *
+       * @return this
+       */
+      public Url query(Query query) {
+         if (query != null && !query.isEmpty()) {
+            url.append(hasQuery ? '&' : '?');
+            query.appendTo(url);
+            hasQuery = true;
+         }
+         return this;
+      }
+
+      @Override
+      public String toString() {
+         return url.toString();
+      }
+   }
+}
@@ -6,46 +6,55 @@ import static org.gitlab.api.http.Method.PUT;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.io.Reader;
-import java.lang.reflect.Field;
-import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
-import java.net.ProtocolException;
-import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import javax.net.ssl.HostnameVerifier;
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLException;
 import javax.net.ssl.SSLHandshakeException;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.X509TrustManager;
 
 import org.apache.commons.io.IOUtils;
 import org.gitlab.api.AuthMethod;
 import org.gitlab.api.GitlabAPI;
 import org.gitlab.api.GitlabAPIException;
+import org.gitlab.api.ProgressListener;
 import org.gitlab.api.TokenType;
+import org.gitlab.api.metrics.MetricsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 
 /**
@@ -56,7 +65,19 @@ import org.gitlab.api.TokenType;
  */
 public class GitlabHTTPRequestor {
 
-   private static final Pattern PAGE_PATTERN = Pattern.compile("([&|?])page=(\\d+)");
+   private static final Logger LOG = LoggerFactory.getLogger(GitlabHTTPRequestor.class);
+
+   private static final Pattern PAGE_PATTERN      = Pattern.compile("([&|?])page=(\\d+)");
+   private static final Pattern NEXT_LINK_PATTERN = Pattern.compile("<([^>]*)>\\s*;\\s*rel=\"next\"");
+
+   private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+
+   /**
+    * The readers of the types responses are decoded to. A reader holds the
+    * deserializer of its type, which is then looked up once per type rather
+    * than for every response.
+    */
+   private static final ConcurrentMap<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
 
    private final GitlabAPI root;
 
@@ -67,6 +88,7 @@ public class GitlabHTTPRequestor {
    private String     apiToken;
    private TokenType  tokenType;
    private AuthMethod authMethod;
+   private Endpoint   endpoint;
 
    public GitlabHTTPRequestor(GitlabAPI root) {
       this.root = root;
@@ -138,6 +160,10 @@ public class GitlabHTTPRequestor {
       return this;
    }
 
+   public <T> T to(Endpoint.Url url, Class<T> type) throws IOException {
+      return endpoint(url).to(url.toString(), type, null);
+   }
+
    public <T> T to(String tailAPIUrl, T instance) throws IOException {
       return to(tailAPIUrl, null, instance);
    }
@@ -160,36 +186,126 @@ public class GitlabHTTPRequestor {
     *        The instance to update from the response
     * @return An object of type T
     * @throws java.io.IOException
-    *         on gitlab api error
+    *         on gitlab api error, a {@link GitlabAPIException} for error
+    *         responses. Failing to read or decode the body of a successful
+    *         response throws the IOException of the failure, e.g. a
+    *         JsonProcessingException, and not a GitlabAPIException with status
+    *         200 as in earlier versions.
     */
    public <T> T to(String tailAPIUrl, Class<T> type, T instance) throws IOException {
-      HttpURLConnection connection = null;
-      try {
-         connection = setupConnection(root.getAPIUrl(tailAPIUrl));
-         if (hasAttachments()) {
-            submitAttachments(connection);
-         } else if (hasOutput()) {
-            submitData(connection);
-         } else if (PUT.equals(method)) {
-            // PUT requires Content-Length: 0 even when there is no body (eg: API for protecting a branch)
-            connection.setDoOutput(true);
-            connection.setFixedLengthStreamingMode(0);
-         }
+      return to(root.getAPIUrl(tailAPIUrl), type, instance);
+   }
 
-         try {
-            return parse(connection, type, instance);
-         } catch (IOException e) {
-            handleAPIError(e, connection);
-         }
+   /**
+    * Like {@link #to(String, Class, Object)}, for endpoints outside the REST
+    * namespace such as /api/graphql.
+    *
+    * @param url
+    *        The absolute url to open a connection to
+    */
+   public <T> T to(URL url, Class<T> type, T instance) throws IOException {
+      RequestBody body = null;
+      if (hasAttachments()) {
+         body = new MultipartBody(data, attachments);
+      } else if (hasOutput()) {
+         body = RequestBody.of("application/json", GitlabAPI.MAPPER.writeValueAsBytes(data));
+      } else if (PUT.equals(method)) {
+         // PUT requires Content-Length: 0 even when there is no body (eg: API for protecting a branch)
+         body = RequestBody.of(null, new byte[0]);
+      }
 
-         return null;
-      } finally {
-         if (connection != null) {
-            connection.disconnect();
+      // Binary content is read into memory once here, neither cached nor coalesced, which would buffer it again
+      try (TransportResponse response = execute(url, body, byte[].class != type)) {
+         return parse(response, type, instance);
+      }
+   }
+
+   /**
+    * Streams the response body into the given stream instead of buffering it.
+    *
+    * @param tailAPIUrl
+    *        The url to open a connection to (after the host and namespace)
+    * @param out
+    *        The stream to write to, it is not closed
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api error
+    */
+   public long download(String tailAPIUrl, OutputStream out, ProgressListener listener) throws IOException {
+      return download(tailAPIUrl, Channels.newChannel(out), listener);
+   }
+
+   /**
+    * Streams the response body into the given file, replacing its contents.
+    * The file is deleted if the download fails.
+    *
+    * @param tailAPIUrl
+    *        The url to open a connection to (after the host and namespace)
+    * @param target
+    *        The file to write to
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api error
+    */
+   public long download(String tailAPIUrl, Path target, ProgressListener listener) throws IOException {
+      try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+         return download(tailAPIUrl, channel, listener);
+      } catch (IOException e) {
+         Files.deleteIfExists(target);
+         throw e;
+      }
+   }
+
+   /**
+    * Streams the response body into the given channel through a buffer of
+    * fixed size, so memory use does not depend on the size of the payload.
+    *
+    * @param tailAPIUrl
+    *        The url to open a connection to (after the host and namespace)
+    * @param channel
+    *        The channel to write to, it is not closed
+    * @param listener
+    *        Receives progress updates, may be null
+    * @return The number of bytes written
+    * @throws IOException
+    *         on gitlab api error
+    */
+   public long download(String tailAPIUrl, WritableByteChannel channel, ProgressListener listener) throws IOException {
+      try (TransportResponse response = execute(root.getAPIUrl(tailAPIUrl), null, false)) {
+         long total = contentLength(response);
+
+         InputStream in = response.getBody();
+         if (in == null) { return 0; }
+         try {
+            ByteBuffer buffer = ByteBuffer.allocate(DOWNLOAD_BUFFER_SIZE);
+            long transferred = 0;
+            int read;
+            while ((read = in.read(buffer.array())) != -1) {
+               buffer.clear().limit(read);
+               while (buffer.hasRemaining()) {
+                  channel.write(buffer);
+               }
+               transferred += read;
+               if (listener != null) {
+                  listener.progress(transferred, total);
+               }
+            }
+            return transferred;
+         } finally {
+            in.close();
          }
       }
    }
 
+   public <T> List<T> getAll(final Endpoint.Url url, final Class<T[]> type) {
+      return endpoint(url).getAll(url.toString(), type);
+   }
+
    public <T> List<T> getAll(final String tailUrl, final Class<T[]> type) {
       List<T> results = new ArrayList<>();
       Iterator<T[]> iterator = asIterator(tailUrl, type);
@@ -204,20 +320,72 @@ public class GitlabHTTPRequestor {
       return results;
    }
 
+   /**
+    * Lazily streams the items of a listing.
+    * Pages are only requested as the stream is consumed and dropped once
+    * their items have been passed on, so short-circuiting operations like
+    * limit or findFirst stop paginating early. The stream must be closed, e.g.
+    * in a try-with-resources statement, closing it cancels the pages prefetched
+    * ahead, which otherwise keep running on the executor of the api.
+    *
+    * @param <T>
+    *        The type of an item
+    * @param tailUrl
+    *        The url of the first page (after the host and namespace)
+    * @param type
+    *        The array type a page is deserialized to
+    */
+   public <T> Stream<T> stream(final Endpoint.Url url, final Class<T[]> type) {
+      return endpoint(url).stream(url.toString(), type);
+   }
+
+   public <T> Stream<T> stream(final String tailUrl, final Class<T[]> type) {
+      PageIterator<T[]> pages = pages(tailUrl, type);
+      return StreamSupport.stream(new PageSpliterator<>(pages), false).onClose(pages::cancel);
+   }
+
+   /**
+    * Iterates over the pages of a listing.
+    * Once the first page reports the total number of pages (X-Total-Pages),
+    * the following pages are fetched in parallel, up to the page concurrency
+    * of the api ahead of the consumer, and are still returned in order. If a
+    * page fails, the pages prefetched ahead are cancelled. An iterator that is
+    * abandoned before its last page leaves them running, use
+    * {@link #stream(String, Class)} to be able to cancel them.
+    *
+    * @param <T>
+    *        The type of a page, usually an array
+    * @param tailApiUrl
+    *        The url of the first page (after the host and namespace)
+    * @param type
+    *        The type a page is deserialized to
+    * @return An iterator over the pages
+    */
    public <T> Iterator<T> asIterator(final String tailApiUrl, final Class<T> type) {
+      return pages(tailApiUrl, type);
+   }
+
+   private <T> PageIterator<T> pages(final String tailApiUrl, final Class<T> type) {
       method(GET); // Ensure we only use iterators for GET requests
 
       // Ensure that we don't submit any data and alert the user
       if (!data.isEmpty()) { throw new IllegalStateException(); }
 
-      return new Iterator<T>() {
+      return new PageIterator<T>() {
 
          T   next;
          URL url;
+         URL firstUrl;
+
+         final Deque<Future<T>> prefetched = new ArrayDeque<>();
+         int                    nextPage;
+         int                    lastPage;
+         boolean                headerDriven;
 
          {
             try {
                url = root.getAPIUrl(tailApiUrl);
+               firstUrl = url;
             } catch (IOException e) {
                throw new RuntimeException(e);
             }
@@ -250,87 +418,266 @@ public class GitlabHTTPRequestor {
             throw new UnsupportedOperationException();
          }
 
+         @Override
+         public void cancel() {
+            for (Future<T> pending : prefetched) {
+               pending.cancel(true);
+            }
+            prefetched.clear();
+            nextPage = lastPage + 1;
+            url = null;
+         }
+
          private void fetch() {
             if (next != null) { return; }
 
+            if (!prefetched.isEmpty()) {
+               next = await(prefetched.poll());
+               prefetch();
+               return;
+            }
+
             if (url == null) { return; }
 
-            try {
-               HttpURLConnection connection = setupConnection(url);
-               try {
-                  next = parse(connection, type, null);
-                  assert next != null;
-                  findNextUrl();
-               } catch (IOException e) {
-                  handleAPIError(e, connection);
+            try (TransportResponse response = execute(url, null, true)) {
+               next = parse(response, type, null);
+               assert next != null;
+               Integer page = intHeader(response, "X-Page");
+               Integer totalPages = intHeader(response, "X-Total-Pages");
+               if (page != null && totalPages != null && root.getPageConcurrency() > 1) {
+                  url = null;
+                  nextPage = page + 1;
+                  lastPage = totalPages;
+                  prefetch();
+               } else {
+                  findNextUrl(response);
                }
             } catch (IOException e) {
                throw new RuntimeException(e);
             }
          }
 
-         private void findNextUrl() throws MalformedURLException {
-            String url = this.url.toString();
+         private void prefetch() {
+            while (prefetched.size() < root.getPageConcurrency() && nextPage <= lastPage) {
+               final URL pageUrl;
+               try {
+                  pageUrl = withPage(firstUrl, nextPage++);
+               } catch (MalformedURLException e) {
+                  throw new RuntimeException(e);
+               }
+               prefetched.add(root.getExecutor().submit(() -> {
+                  try (TransportResponse response = execute(pageUrl, null, true)) {
+                     return parse(response, type, null);
+                  }
+               }));
+            }
+         }
+
+         private T await(Future<T> page) {
+            try {
+               return page.get();
+            } catch (InterruptedException e) {
+               cancel();
+               Thread.currentThread().interrupt();
+               throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+               cancel();
+               throw new RuntimeException(e.getCause());
+            }
+         }
+
+         /**
+          * Follows the Link rel="next" header, or the X-Next-Page header of offset
+          * pagination. Both are empty on the last page, so no request is wasted on
+          * an empty page. Only if the server never sent either, the page number
+          * is incremented until an empty page comes back.
+          */
+         private void findNextUrl(TransportResponse response) throws MalformedURLException {
+            URL url = this.url;
 
             this.url = null;
-            /*
-             * Increment the page number for the url if a "page" property exists,
-             * otherwise, add the page property and increment it.
-             * The Gitlab API is not a compliant hypermedia REST api, so we use
-             * a naive implementation.
-             */
-            Matcher matcher = PAGE_PATTERN.matcher(url);
-
-            if (matcher.find()) {
-               Integer page = Integer.parseInt(matcher.group(2)) + 1;
-               this.url = new URL(matcher.replaceAll(matcher.group(1) + "page=" + page));
-            } else {
-               // Since the page query was not present, its safe to assume that we just
-               // currently used the first page, so we can default to page 2
-               this.url = new URL(url + (url.indexOf('?') > 0 ? '&' : '?') + "page=2");
+
+            String link = response.getHeader("Link");
+            String nextPage = response.getHeader("X-Next-Page");
+            if (link != null || nextPage != null) {
+               headerDriven = true;
+            }
+            if (link != null) {
+               URL next = findNextLink(link);
+               if (next != null) {
+                  // The server announces its external url, keep talking to the configured host
+                  this.url = new URL(url.getProtocol(), url.getHost(), url.getPort(), next.getFile());
+               }
+            } else if (nextPage != null) {
+               if (!nextPage.trim().isEmpty()) {
+                  this.url = withPage(url, Integer.parseInt(nextPage.trim()));
+               }
+            } else if (!headerDriven) {
+               Matcher matcher = PAGE_PATTERN.matcher(url.toString());
+
+               if (matcher.find()) {
+                  this.url = withPage(url, Integer.parseInt(matcher.group(2)) + 1);
+               } else {
+                  // Since the page query was not present, its safe to assume that we just
+                  // currently used the first page, so we can default to page 2
+                  this.url = withPage(url, 2);
+               }
             }
          }
       };
    }
 
-   private void submitAttachments(HttpURLConnection connection) throws IOException {
-      String boundary = Long.toHexString(System.currentTimeMillis()); // Just generate some unique random value.
-      connection.setDoOutput(true);
-      connection.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-      String charset = "UTF-8";
-      String CRLF = "\r\n"; // Line separator required by multipart/form-data.
-      OutputStream output = connection.getOutputStream();
-      try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, charset), true)) {
-         for (Map.Entry<String, Object> paramEntry : data.entrySet()) {
-            String paramName = paramEntry.getKey();
-            String param = GitlabAPI.MAPPER.writeValueAsString(paramEntry.getValue());
-            writer.append("--").append(boundary).append(CRLF);
-            writer.append("Content-Disposition: form-data; name=\"").append(paramName).append("\"").append(CRLF);
-            writer.append("Content-Type: text/plain; charset=").append(charset).append(CRLF);
-            writer.append(CRLF).append(param).append(CRLF).flush();
+   /**
+    * Counts the bytes read from the body and records them when closed
+    */
+   private static class MeteredResponse implements TransportResponse {
+
+      private final TransportResponse response;
+      private final MetricsRegistry   metrics;
+      private final String            endpoint;
+
+      private InputStream body;
+      private long        received;
+
+      MeteredResponse(TransportResponse response, MetricsRegistry metrics, String endpoint) {
+         this.response = response;
+         this.metrics = metrics;
+         this.endpoint = endpoint;
+      }
+
+      @Override
+      public URL getUrl() {
+         return response.getUrl();
+      }
+
+      @Override
+      public int getStatusCode() {
+         return response.getStatusCode();
+      }
+
+      @Override
+      public String getHeader(String name) {
+         return response.getHeader(name);
+      }
+
+      @Override
+      public InputStream getBody() throws IOException {
+         if (body == null) {
+            InputStream in = response.getBody();
+            if (in == null) { return null; }
+            body = new FilterInputStream(in) {
+
+               @Override
+               public int read() throws IOException {
+                  int b = super.read();
+                  if (b >= 0) {
+                     received++;
+                  }
+                  return b;
+               }
+
+               @Override
+               public int read(byte[] b, int off, int len) throws IOException {
+                  int n = super.read(b, off, len);
+                  if (n > 0) {
+                     received += n;
+                  }
+                  return n;
+               }
+            };
          }
-         for (Map.Entry<String, File> attachMentEntry : attachments.entrySet()) {
-            File binaryFile = attachMentEntry.getValue();
-            writer.append("--").append(boundary).append(CRLF);
-            writer.append("Content-Disposition: form-data; name=\"").append(attachMentEntry.getKey()).append("\"; filename=\"").append(binaryFile
-                  .getName()).append("\"").append(CRLF);
-            writer.append("Content-Type: ").append(URLConnection.guessContentTypeFromName(binaryFile.getName())).append(CRLF);
-            writer.append("Content-Transfer-Encoding: binary").append(CRLF);
-            writer.append(CRLF).flush();
-            try (Reader fileReader = new FileReader(binaryFile)) {
-               IOUtils.copy(fileReader, output);
-            }
-            output.flush(); // Important before continuing with writer!
-            writer.append(CRLF).flush(); // CRLF is important! It indicates end of boundary.
+         return body;
+      }
+
+      @Override
+      public void close() {
+         response.close();
+         if (received > 0) {
+            metrics.recordBytesIn(endpoint, received);
+            received = 0;
          }
-         writer.append("--").append(boundary).append("--").append(CRLF).flush();
       }
    }
 
-   private void submitData(HttpURLConnection connection) throws IOException {
-      connection.setDoOutput(true);
-      connection.setRequestProperty("Content-Type", "application/json");
-      GitlabAPI.MAPPER.writeValue(connection.getOutputStream(), data);
+   private interface PageIterator<T> extends Iterator<T> {
+
+      /**
+       * Stops the pagination and cancels the pages prefetched ahead
+       */
+      void cancel();
+   }
+
+   /**
+    * Flattens pages into their items, holding on to the current page only
+    */
+   private static class PageSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+      private final Iterator<T[]> pages;
+      private T[]                 page;
+      private int                 index;
+
+      PageSpliterator(Iterator<T[]> pages) {
+         super(Long.MAX_VALUE, ORDERED | NONNULL);
+         this.pages = pages;
+      }
+
+      @Override
+      public boolean tryAdvance(Consumer<? super T> action) {
+         while (page == null || index >= page.length) {
+            page = null;
+            if (!pages.hasNext()) { return false; }
+            page = pages.next();
+            index = 0;
+         }
+         action.accept(page[index++]);
+         return true;
+      }
+   }
+
+   private static URL withPage(URL url, int page) throws MalformedURLException {
+      String value = url.toString();
+      Matcher matcher = PAGE_PATTERN.matcher(value);
+
+      if (matcher.find()) {
+         return new URL(matcher.replaceAll(matcher.group(1) + "page=" + page));
+      } else {
+         return new URL(value + (value.indexOf('?') > 0 ? '&' : '?') + "page=" + page);
+      }
+   }
+
+   /**
+    * Returns the target of the rel="next" entry of a Link header, or null if
+    * there is none.
+    */
+   private static URL findNextLink(String link) throws MalformedURLException {
+      Matcher matcher = NEXT_LINK_PATTERN.matcher(link);
+      return matcher.find() ? new URL(matcher.group(1)) : null;
+   }
+
+   /**
+    * Returns the length of the decoded body, or -1 if it is unknown. The
+    * Content-Length of an encoded response is the length before decoding.
+    */
+   static long contentLength(TransportResponse response) {
+      String encoding = response.getHeader("Content-Encoding");
+      if (encoding != null && !encoding.equalsIgnoreCase("identity")) { return -1; }
+      String length = response.getHeader("Content-Length");
+      if (length == null) { return -1; }
+      try {
+         return Long.parseLong(length.trim());
+      } catch (NumberFormatException e) {
+         return -1;
+      }
+   }
+
+   private static Integer intHeader(TransportResponse response, String name) {
+      String value = response.getHeader(name);
+      if (value == null || value.trim().isEmpty()) { return null; }
+      try {
+         return Integer.valueOf(value.trim());
+      } catch (NumberFormatException e) {
+         return null;
+      }
    }
 
    private boolean hasAttachments() {
@@ -341,115 +688,246 @@ public class GitlabHTTPRequestor {
       return method.equals(POST) || method.equals(PUT) && !data.isEmpty();
    }
 
-   private HttpURLConnection setupConnection(URL url) throws IOException {
-      if (root.isIgnoreCertificateErrors()) {
-         ignoreCertificateErrors();
+   /**
+    * Sends the request through the transport of the api.
+    * Error responses are turned into exceptions, the returned response has a
+    * status below 400 and must be closed by the caller. Concurrent identical
+    * GETs are coalesced into a single request, its response is buffered if
+    * other callers wait for it and streamed otherwise.
+    *
+    * @param cacheable
+    *        whether a GET may be coalesced, validated against and stored in
+    *        the response cache
+    */
+   private TransportResponse execute(final URL url, final RequestBody body, final boolean cacheable) throws IOException {
+      SingleFlight singleFlight = root.getSingleFlight();
+      if (singleFlight != null && cacheable && method == GET && body == null) {
+         return singleFlight.execute(method + " " + url + "#" + apiToken, () -> exchange(url, body, cacheable));
       }
+      return exchange(url, body, cacheable);
+   }
 
-      if (apiToken != null && authMethod == AuthMethod.URL_PARAMETER) {
-         String urlWithAuth = url.toString();
-         urlWithAuth = urlWithAuth + (urlWithAuth.indexOf('?') > 0 ? '&' : '?') + tokenType.getTokenParamName() + "=" + apiToken;
-         url = new URL(urlWithAuth);
+   private TransportResponse exchange(URL url, RequestBody body, boolean cacheable) throws IOException {
+      TransportRequest request = setupRequest(url).body(body);
+      ResponseCache cache = root.getResponseCache();
+      String cacheKey = null;
+      if (cache != null && cacheable && method == GET && body == null) {
+         cacheKey = cacheKey(request.getUrl());
+         String etag = cache.getETag(cacheKey);
+         if (etag != null) {
+            request.header("If-None-Match", etag);
+         }
       }
 
-      HttpURLConnection connection = root.getProxy() != null ? (HttpURLConnection) url.openConnection(root.getProxy()) : (HttpURLConnection) url
-            .openConnection();
-      if (apiToken != null && authMethod == AuthMethod.HEADER) {
-         connection.setRequestProperty(tokenType.getTokenHeaderName(), String.format(tokenType.getTokenHeaderFormat(), apiToken));
+      MetricsRegistry metrics = root.getMetrics();
+      String endpoint = metrics != null ? endpoint(url) : null;
+      long sent = body != null ? body.getContentLength() : 0;
+      long start = System.nanoTime();
+      TransportResponse response;
+      try {
+         response = new InterceptorChain(interceptors(), request, r -> {
+            TransportResponse sentResponse = send(r, metrics, endpoint);
+            return metrics != null ? new MeteredResponse(sentResponse, metrics, endpoint) : sentResponse;
+         }).proceed(request);
+      } catch (IOException | RuntimeException e) {
+         if (metrics != null) {
+            metrics.recordFailure(endpoint, System.nanoTime() - start, sent);
+         }
+         throw e;
+      }
+      if (metrics != null) {
+         metrics.recordResponse(endpoint, response.getStatusCode(), System.nanoTime() - start, sent);
       }
 
-      connection.setReadTimeout(root.getResponseReadTimeout());
-      connection.setConnectTimeout(root.getConnectionTimeout());
+      if (cacheKey != null && response.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+         response.close();
+         if (metrics != null) {
+            metrics.recordCacheHit(endpoint);
+         }
+         TransportResponse cached = cache.hit(cacheKey, response.getUrl());
+         if (cached != null) { return cached; }
+         // Evicted since the ETag was sent, ask again without it
+         return exchange(url, body, false);
+      }
+      if (cacheKey != null && response.getStatusCode() == HttpURLConnection.HTTP_OK) { return cache.store(cacheKey, response); }
 
-      try {
-         connection.setRequestMethod(method.name());
-      } catch (ProtocolException e) {
-         // Hack in case the API uses a non-standard HTTP verb
+      if (response.getStatusCode() >= HttpURLConnection.HTTP_BAD_REQUEST) {
          try {
-            Field methodField = connection.getClass().getDeclaredField("method");
-            methodField.setAccessible(true);
-            methodField.set(connection, method.name());
-         } catch (Exception x) {
-            throw new IOException("Failed to set the custom verb", x);
+            handleAPIError(response);
+         } finally {
+            response.close();
          }
       }
-      connection.setRequestProperty("User-Agent", root.getUserAgent());
-      connection.setRequestProperty("Accept-Encoding", "gzip");
-      return connection;
+      return response;
    }
 
-   private <T> T parse(HttpURLConnection connection, Class<T> type, T instance) throws IOException {
-      InputStreamReader reader = null;
-      try {
-         if (byte[].class == type) { return type.cast(IOUtils.toByteArray(wrapStream(connection, connection.getInputStream()))); }
-         reader = new InputStreamReader(wrapStream(connection, connection.getInputStream()), "UTF-8");
-         String json = IOUtils.toString(reader);
-         if (type != null && type == String.class) { return type.cast(json); }
-         if (type != null && type != Void.class) {
-            return GitlabAPI.MAPPER.readValue(json, type);
-         } else if (instance != null) {
-            return GitlabAPI.MAPPER.readerForUpdating(instance).readValue(json);
+   /**
+    * The built-in authentication, then the interceptors of the api, then the
+    * built-in gzip decoding. Validating against the response cache and
+    * coalescing happen outside the chain, so interceptors see the 304 Not
+    * Modified of a validated response and not the cached body served for it.
+    */
+   private List<Interceptor> interceptors() {
+      List<Interceptor> configured = root.getInterceptors();
+      List<Interceptor> interceptors = new ArrayList<>(configured.size() + 2);
+      if (apiToken != null) {
+         interceptors.add(new AuthInterceptor(apiToken, tokenType, authMethod));
+      }
+      interceptors.addAll(configured);
+      interceptors.add(GzipInterceptor.INSTANCE);
+      return interceptors;
+   }
+
+   /**
+    * Sends a request within the rate limit of the api. Requests rejected with
+    * 429 Too Many Requests were not processed by the server and are replayed
+    * once the limit allows it. Idempotent requests failing on the way are
+    * retried according to the retry policy of the api.
+    */
+   private TransportResponse send(TransportRequest request, MetricsRegistry metrics, String endpoint) throws IOException {
+      RateLimiter limiter = root.getRateLimiter();
+      RetryPolicy retryPolicy = root.getRetryPolicy();
+      boolean retryable = retryPolicy != null && retryPolicy.isIdempotent(request.getMethod());
+      int replays = 0;
+      int retries = 0;
+      while (true) {
+         RateLimiter.Permit permit = limiter != null ? limiter.acquire(rateLimitKey(request.getUrl())) : null;
+         TransportResponse response = null;
+         IOException failure = null;
+         try {
+            response = root.getTransport().execute(request);
+         } catch (SSLHandshakeException e) {
+            throw new SSLException("You can disable certificate checking by setting ignoreCertificateErrors " + "on GitlabHTTPRequestor.", e);
+         } catch (IOException e) {
+            failure = e;
+         } finally {
+            if (permit != null) {
+               permit.complete(response);
+            }
+         }
+
+         String retryAfter = null;
+         if (failure != null) {
+            if (!retryable || !retryPolicy.isRetryable(failure)) { throw failure; }
+         } else if (response.getStatusCode() == RateLimiter.HTTP_TOO_MANY_REQUESTS && limiter != null && replays < limiter.getMaxReplays()) {
+            replays++;
+            response.close();
+            continue;
+         } else if (!retryable || !retryPolicy.isRetryable(response.getStatusCode())) {
+            return response;
          } else {
-            return null;
+            retryAfter = response.getHeader("Retry-After");
          }
-      } catch (SSLHandshakeException e) {
-         throw new SSLException("You can disable certificate checking by setting ignoreCertificateErrors " + "on GitlabHTTPRequestor.", e);
-      } finally {
-         IOUtils.closeQuietly(reader);
+
+         long delay = retryPolicy.nextDelay(retries++, retryAfter);
+         if (delay < 0) {
+            if (failure != null) { throw failure; }
+            return response;
+         }
+         if (response != null) {
+            response.close();
+         }
+         LOG.debug("Retrying {} {} in {} ms after {}", request.getMethod(), request.getUrl(), delay,
+               failure != null ? failure : "status " + response.getStatusCode());
+         if (metrics != null) {
+            metrics.recordRetry(endpoint);
+         }
+         retryPolicy.await(delay);
       }
    }
 
-   private InputStream wrapStream(HttpURLConnection connection, InputStream inputStream) throws IOException {
-      String encoding = connection.getContentEncoding();
+   /**
+    * Records the endpoint a url was built from, its requests are then
+    * identified by the endpoint rather than the url.
+    */
+   private GitlabHTTPRequestor endpoint(Endpoint.Url url) {
+      this.endpoint = url.getEndpoint();
+      return this;
+   }
 
-      if (encoding == null || inputStream == null) {
-         return inputStream;
-      } else if (encoding.equals("gzip")) {
-         return new GZIPInputStream(inputStream);
-      } else {
-         throw new UnsupportedOperationException("Unexpected Content-Encoding: " + encoding);
+   /**
+    * @return The endpoint of the url for the metrics, relative to the api namespace
+    */
+   private String endpoint(URL url) throws IOException {
+      if (endpoint != null) { return endpoint.getId(method); }
+      String path = url.getPath();
+      String namespace = root.getAPIUrl("").getPath();
+      if (path.startsWith(namespace)) {
+         path = path.substring(namespace.length() - 1);
       }
+      return MetricsRegistry.endpoint(method.name(), path);
    }
 
-   private void handleAPIError(IOException e, HttpURLConnection connection) throws IOException {
-      if (e instanceof FileNotFoundException || // pass through 404 Not Found to allow the caller to handle it intelligently
-          e instanceof SocketTimeoutException || e instanceof ConnectException) { throw e; }
+   /**
+    * GitLab limits requests per user, so the limit is tracked per host and token
+    */
+   private String rateLimitKey(URL url) {
+      return url.getHost() + ":" + url.getPort() + "#" + apiToken;
+   }
 
-      InputStream es = wrapStream(connection, connection.getErrorStream());
-      try {
-         String error = null;
-         if (es != null) {
-            error = IOUtils.toString(es, "UTF-8");
-         }
-         throw new GitlabAPIException(error, connection.getResponseCode(), e);
-      } finally {
-         IOUtils.closeQuietly(es);
+   /**
+    * The url of the request without a token, as the server validates the ETag
+    * against the content seen by the token anyway
+    */
+   private String cacheKey(URL url) {
+      String key = url.toString();
+      if (tokenType != null) {
+         key = key.replaceAll("([?&])" + tokenType.getTokenParamName() + "=[^&]*&?", "$1").replaceAll("[?&]$", "");
       }
+      return key;
    }
 
-   private void ignoreCertificateErrors() {
-      TrustManager[] trustAllCerts = new TrustManager[] { new X509TrustManager() {
+   private TransportRequest setupRequest(URL url) throws IOException {
+      TransportRequest request = new TransportRequest(method, url).endpoint(endpoint);
+      request.header("User-Agent", root.getUserAgent());
+      return request.proxy(root.getProxy()).timeouts(root.getConnectionTimeout(), root.getResponseReadTimeout()).tls(root.getTlsConfig());
+   }
 
-         @Override
-         public java.security.cert.X509Certificate[] getAcceptedIssuers() {
-            return null;
+   /**
+    * Decodes the response body. JSON is read straight from the body stream, so the payload is never held in memory as a whole string.
+    * Read and decode errors are thrown as they are, the response was not an API error.
+    */
+   private <T> T parse(TransportResponse response, Class<T> type, T instance) throws IOException {
+      if (type == Void.class || type == null && instance == null) { return null; }
+
+      InputStream in = null;
+      try {
+         in = response.getBody();
+         if (byte[].class == type) { return type.cast(IOUtils.toByteArray(in)); }
+         if (String.class == type) { return type.cast(IOUtils.toString(in, "UTF-8")); }
+         try (JsonParser parser = GitlabAPI.MAPPER.getFactory().createParser(in)) {
+            if (type != null) {
+               return reader(type).readValue(parser);
+            } else {
+               return reader(instance.getClass()).withValueToUpdate(instance).readValue(parser);
+            }
          }
+      } finally {
+         IOUtils.closeQuietly(in);
+      }
+   }
 
-         @Override
-         public void checkClientTrusted(java.security.cert.X509Certificate[] certs, String authType) {}
+   private static ObjectReader reader(Class<?> type) {
+      return READERS.computeIfAbsent(type, GitlabAPI.MAPPER::readerFor);
+   }
 
-         @Override
-         public void checkServerTrusted(java.security.cert.X509Certificate[] certs, String authType) {}
-      } };
-      // Added per https://github.com/timols/java-gitlab-api/issues/44
-      HostnameVerifier nullVerifier = (hostname, session) -> true;
+   private void handleAPIError(TransportResponse response) throws IOException {
+      int status = response.getStatusCode();
+      // pass through 404 Not Found to allow the caller to handle it intelligently
+      if (status == HttpURLConnection.HTTP_NOT_FOUND || status == HttpURLConnection.HTTP_GONE) {
+         throw new FileNotFoundException(response.getUrl().toString());
+      }
 
+      IOException cause = new IOException("Server returned HTTP response code: " + status + " for URL: " + response.getUrl());
+      InputStream es = response.getBody();
       try {
-         SSLContext sc = SSLContext.getInstance("SSL");
-         sc.init(null, trustAllCerts, new java.security.SecureRandom());
-         HttpsURLConnection.setDefaultSSLSocketFactory(sc.getSocketFactory());
-         // Added per https://github.com/timols/java-gitlab-api/issues/44
-         HttpsURLConnection.setDefaultHostnameVerifier(nullVerifier);
-      } catch (Exception ignore) {}
+         String error = null;
+         if (es != null) {
+            error = IOUtils.toString(es, "UTF-8");
+         }
+         throw new GitlabAPIException(error, status, cause);
+      } finally {
+         IOUtils.closeQuietly(es);
+      }
    }
 }
@@ -0,0 +1,75 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+
+
+/**
+ * Built-in interceptor asking for gzip compressed responses and decoding
+ * them. The decoded response reports neither the encoding nor the length of
+ * the encoded body.
+ */
+class GzipInterceptor implements Interceptor {
+
+   static final GzipInterceptor INSTANCE = new GzipInterceptor();
+
+   @Override
+   public TransportResponse intercept(Chain chain) throws IOException {
+      TransportRequest request = chain.request();
+      if (request.getHeader("Accept-Encoding") == null) {
+         request.header("Accept-Encoding", "gzip");
+      }
+      TransportResponse response = chain.proceed(request);
+      String encoding = response.getHeader("Content-Encoding");
+      if (encoding == null || encoding.equalsIgnoreCase("identity")) { return response; }
+      if (!encoding.equalsIgnoreCase("gzip")) {
+         response.close();
+         throw new UnsupportedOperationException("Unexpected Content-Encoding: " + encoding);
+      }
+      return new DecodedResponse(response);
+   }
+
+   private static class DecodedResponse implements TransportResponse {
+
+      private final TransportResponse response;
+
+      private InputStream body;
+
+      DecodedResponse(TransportResponse response) {
+         this.response = response;
+      }
+
+      @Override
+      public URL getUrl() {
+         return response.getUrl();
+      }
+
+      @Override
+      public int getStatusCode() {
+         return response.getStatusCode();
+      }
+
+      @Override
+      public String getHeader(String name) {
+         if (name.equalsIgnoreCase("Content-Encoding") || name.equalsIgnoreCase("Content-Length")) { return null; }
+         return response.getHeader(name);
+      }
+
+      @Override
+      public InputStream getBody() throws IOException {
+         if (body == null) {
+            InputStream in = response.getBody();
+            if (in == null) { return null; }
+            body = new GZIPInputStream(in);
+         }
+         return body;
+      }
+
+      @Override
+      public void close() {
+         response.close();
+      }
+   }
+}
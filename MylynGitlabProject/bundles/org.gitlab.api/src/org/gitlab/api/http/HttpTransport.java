@@ -0,0 +1,32 @@
+package org.gitlab.api.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+/**
+ * The wire level of the {@link GitlabHTTPRequestor}.
+ * A transport sends a single {@link TransportRequest} and hands back the
+ * response. Status codes are not interpreted here, a 404 or 500 is returned
+ * like any other response.
+ */
+public interface HttpTransport extends Closeable {
+
+   /**
+    * Sends the request and waits for the response head.
+    * The caller must close the returned response.
+    *
+    * @param request
+    *        The request to send
+    * @return The response, never null
+    * @throws IOException
+    *         if the exchange failed on the network level
+    */
+   TransportResponse execute(TransportRequest request) throws IOException;
+
+   /**
+    * Releases all resources held by this transport.
+    */
+   @Override
+   void close();
+}
@@ -0,0 +1,41 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.util.Map;
+
+
+/**
+ * Observes and modifies the exchanges of a {@link GitlabHTTPRequestor}.
+ * Interceptors are configured on the {@link org.gitlab.api.GitlabAPI} and run
+ * in order, each one handing the request on to the next by calling
+ * {@link Chain#proceed(TransportRequest)}. An interceptor may change the
+ * request before, and wrap or replace the response after, or return a
+ * response without proceeding at all. The built-in authentication runs before
+ * and the gzip decoding after all configured interceptors, so these see the
+ * authenticated request and the decoded body.
+ */
+public interface Interceptor {
+
+   TransportResponse intercept(Chain chain) throws IOException;
+
+   interface Chain {
+
+      /**
+       * Set by the requestor to the time the transport took for the exchange,
+       * in nanoseconds as a {@link Long}
+       */
+      String TRANSPORT_TIME_NANOS = "transportTimeNanos";
+
+      TransportRequest request();
+
+      /**
+       * Hands the request to the next interceptor, or to the transport after the last one.
+       */
+      TransportResponse proceed(TransportRequest request) throws IOException;
+
+      /**
+       * @return Data attached to the exchange, shared by all interceptors of the chain
+       */
+      Map<String, Object> attributes();
+   }
+}
@@ -0,0 +1,63 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The chain of one exchange, ending in the transport
+ */
+class InterceptorChain implements Interceptor.Chain {
+
+   interface Terminal {
+
+      TransportResponse send(TransportRequest request) throws IOException;
+   }
+
+   private final List<Interceptor>   interceptors;
+   private final int                 index;
+   private final TransportRequest    request;
+   private final Map<String, Object> attributes;
+   private final Terminal            terminal;
+
+   InterceptorChain(List<Interceptor> interceptors, TransportRequest request, Terminal terminal) {
+      this(interceptors, 0, request, new HashMap<>(), terminal);
+   }
+
+   private InterceptorChain(List<Interceptor> interceptors, int index, TransportRequest request, Map<String, Object> attributes,
+         Terminal terminal) {
+      this.interceptors = interceptors;
+      this.index = index;
+      this.request = request;
+      this.attributes = attributes;
+      this.terminal = terminal;
+   }
+
+   @Override
+   public TransportRequest request() {
+      return request;
+   }
+
+   @Override
+   public TransportResponse proceed(TransportRequest request) throws IOException {
+      if (index == interceptors.size()) {
+         long start = System.nanoTime();
+         try {
+            return terminal.send(request);
+         } finally {
+            attributes.put(TRANSPORT_TIME_NANOS, System.nanoTime() - start);
+         }
+      }
+      Interceptor interceptor = interceptors.get(index);
+      TransportResponse response = interceptor.intercept(new InterceptorChain(interceptors, index + 1, request, attributes, terminal));
+      if (response == null) { throw new IllegalStateException("Interceptor " + interceptor + " returned no response"); }
+      return response;
+   }
+
+   @Override
+   public Map<String, Object> attributes() {
+      return attributes;
+   }
+}
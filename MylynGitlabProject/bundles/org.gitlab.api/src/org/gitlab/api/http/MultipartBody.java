@@ -0,0 +1,145 @@
+package org.gitlab.api.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.gitlab.api.GitlabAPI;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+
+/**
+ * A multipart/form-data body.
+ * All part headers are encoded up front, so the exact length is known before
+ * sending and the transport can stream the body in fixed-length mode. Files
+ * are copied byte for byte through their {@link FileChannel} and never held
+ * in memory.
+ */
+public class MultipartBody implements RequestBody {
+
+   private static final String CRLF = "\r\n"; // Line separator required by multipart/form-data.
+
+   private final String     boundary;
+   private final List<Part> parts = new ArrayList<>();
+   private final byte[]     closing;
+   private final long       contentLength;
+
+   /**
+    * @param params
+    *        The form parameters, their values are sent as JSON
+    * @param files
+    *        The files to attach by parameter name
+    * @throws JsonProcessingException
+    *         if a parameter value can not be serialized
+    */
+   public MultipartBody(Map<String, Object> params, Map<String, File> files) throws JsonProcessingException {
+      boundary = Long.toHexString(ThreadLocalRandom.current().nextLong()) + Long.toHexString(System.nanoTime());
+
+      for (Map.Entry<String, Object> param : params.entrySet()) {
+         byte[] header = partHeader(param.getKey(), null, "text/plain; charset=UTF-8");
+         parts.add(new Part(header, GitlabAPI.MAPPER.writeValueAsBytes(param.getValue()), null));
+      }
+      for (Map.Entry<String, File> attachment : files.entrySet()) {
+         File file = attachment.getValue();
+         String contentType = URLConnection.guessContentTypeFromName(file.getName());
+         byte[] header = partHeader(attachment.getKey(), file.getName(), contentType != null ? contentType : "application/octet-stream");
+         parts.add(new Part(header, null, file));
+      }
+      closing = bytes("--" + boundary + "--" + CRLF);
+
+      long length = closing.length;
+      for (Part part : parts) {
+         length += part.header.length + part.length + CRLF.length();
+      }
+      contentLength = length;
+   }
+
+   @Override
+   public String getContentType() {
+      return "multipart/form-data; boundary=" + boundary;
+   }
+
+   @Override
+   public long getContentLength() {
+      return contentLength;
+   }
+
+   @Override
+   public void writeTo(OutputStream out) throws IOException {
+      WritableByteChannel target = null;
+      for (Part part : parts) {
+         out.write(part.header);
+         if (part.file == null) {
+            out.write(part.content);
+         } else {
+            if (target == null) {
+               target = Channels.newChannel(out);
+            }
+            transfer(part, target);
+         }
+         out.write(bytes(CRLF)); // CRLF is important! It indicates end of boundary.
+      }
+      out.write(closing);
+      out.flush();
+   }
+
+   private void transfer(Part part, WritableByteChannel target) throws IOException {
+      try (FileChannel channel = FileChannel.open(part.file.toPath(), StandardOpenOption.READ)) {
+         long position = 0;
+         while (position < part.length) {
+            long transferred = channel.transferTo(position, part.length - position, target);
+            if (transferred <= 0) { throw new IOException("File " + part.file + " changed while uploading"); }
+            position += transferred;
+         }
+      }
+   }
+
+   private byte[] partHeader(String name, String filename, String contentType) {
+      StringBuilder header = new StringBuilder();
+      header.append("--").append(boundary).append(CRLF);
+      header.append("Content-Disposition: form-data; name=\"").append(escape(name)).append("\"");
+      if (filename != null) {
+         header.append("; filename=\"").append(escape(filename)).append("\"");
+      }
+      header.append(CRLF);
+      header.append("Content-Type: ").append(contentType).append(CRLF);
+      if (filename != null) {
+         header.append("Content-Transfer-Encoding: binary").append(CRLF);
+      }
+      return bytes(header.append(CRLF).toString());
+   }
+
+   private static byte[] bytes(String value) {
+      return value.getBytes(StandardCharsets.UTF_8);
+   }
+
+   private static String escape(String value) {
+      return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+   }
+
+   private static class Part {
+
+      final byte[] header;
+      final byte[] content;
+      final File   file;
+      final long   length;
+
+      Part(byte[] header, byte[] content, File file) {
+         this.header = header;
+         this.content = content;
+         this.file = file;
+         this.length = file != null ? file.length() : content.length;
+      }
+   }
+}
@@ -0,0 +1,94 @@
+package org.gitlab.api.http;
+
+/**
+ * Immutable snapshot of the state of a {@link ConnectionPool}
+ */
+public class PoolMetrics {
+
+   private final int  maxPerHost;
+   private final int  hosts;
+   private final int  leased;
+   private final long acquired;
+   private final long released;
+   private final long discarded;
+   private final long waits;
+   private final long waitTimeMillis;
+   private final long reapedHosts;
+
+   public PoolMetrics(int maxPerHost, int hosts, int leased, long acquired, long released, long discarded, long waits, long waitTimeMillis,
+         long reapedHosts) {
+      this.maxPerHost = maxPerHost;
+      this.hosts = hosts;
+      this.leased = leased;
+      this.acquired = acquired;
+      this.released = released;
+      this.discarded = discarded;
+      this.waits = waits;
+      this.waitTimeMillis = waitTimeMillis;
+      this.reapedHosts = reapedHosts;
+   }
+
+   public int getMaxPerHost() {
+      return maxPerHost;
+   }
+
+   /**
+    * @return The number of hosts currently tracked by the pool
+    */
+   public int getHosts() {
+      return hosts;
+   }
+
+   /**
+    * @return The number of connections currently in use
+    */
+   public int getLeased() {
+      return leased;
+   }
+
+   /**
+    * @return The total number of leases handed out
+    */
+   public long getAcquired() {
+      return acquired;
+   }
+
+   /**
+    * @return The total number of connections handed back for reuse
+    */
+   public long getReleased() {
+      return released;
+   }
+
+   /**
+    * @return The total number of connections closed after a failure
+    */
+   public long getDiscarded() {
+      return discarded;
+   }
+
+   /**
+    * @return The number of leases that had to wait for a free connection
+    */
+   public long getWaits() {
+      return waits;
+   }
+
+   public long getWaitTimeMillis() {
+      return waitTimeMillis;
+   }
+
+   /**
+    * @return The number of idle hosts dropped by the pool
+    */
+   public long getReapedHosts() {
+      return reapedHosts;
+   }
+
+   @Override
+   public String toString() {
+      return "PoolMetrics [maxPerHost=" + maxPerHost + ", hosts=" + hosts + ", leased=" + leased + ", acquired=" + acquired + ", released=" +
+             released + ", discarded=" + discarded + ", waits=" + waits + ", waitTimeMillis=" + waitTimeMillis + ", reapedHosts=" + reapedHosts +
+             "]";
+   }
+}
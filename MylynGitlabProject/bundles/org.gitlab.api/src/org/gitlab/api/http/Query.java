@@ -4,8 +4,6 @@ import org.gitlab.api.models.GitlabAccessLevel;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Models the Query
@@ -13,21 +11,11 @@ import java.util.List;
  */
 public class Query {
 
-    private class Tuple<T1, T2> {
-        T1 _1;
-        T2 _2;
-
-        public Tuple(T1 _1, T2 _2) {
-            this._1 = _1;
-            this._2 = _2;
-        }
-    }
-
     /**
-     * The type of params is:
-     * Tuple<name, Tuple<value, URLEncoder.encode(value, "UTF-8")>>
+     * The encoded parameters, e.g. "name=value&amp;other=value", encoded once
+     * when they are appended
      */
-    private final List<Tuple<String, Tuple<String, String>>> params = new ArrayList<Tuple<String, Tuple<String, String>>>();
+    private final StringBuilder params = new StringBuilder();
 
     /**
      * Appends a parameter to the query
@@ -38,7 +26,10 @@ public class Query {
      * @throws java.io.UnsupportedEncodingException If the provided value cannot be URL Encoded
      */
     public Query append(final String name, final String value) throws UnsupportedEncodingException {
-        params.add(new Tuple<String, Tuple<String, String>>(name, new Tuple<String, String>(value, URLEncoder.encode(value, "UTF-8"))));
+        if (params.length() > 0) {
+            params.append('&');
+        }
+        params.append(name).append('=').append(URLEncoder.encode(value, "UTF-8"));
         return this;
     }
 
@@ -107,7 +98,22 @@ public class Query {
     }
 
     public boolean mergeWith(Query query) {
-        return params.addAll(query.params);
+        if (query.isEmpty()) {
+            return false;
+        }
+        if (params.length() > 0) {
+            params.append('&');
+        }
+        params.append(query.params);
+        return true;
+    }
+
+    boolean isEmpty() {
+        return params.length() == 0;
+    }
+
+    void appendTo(StringBuilder url) {
+        url.append(params);
     }
 
     /**
@@ -116,19 +122,6 @@ public class Query {
      */
     @Override
     public String toString() {
-        final StringBuilder builder = new StringBuilder();
-
-        for (final Tuple<String, Tuple<String, String>> param : params) {
-            if (builder.length() == 0) {
-                builder.append('?');
-            } else {
-                builder.append('&');
-            }
-            builder.append(param._1);
-            builder.append('=');
-            builder.append(param._2._2);
-        }
-
-        return builder.toString();
+        return params.length() == 0 ? "" : "?" + params;
     }
 }
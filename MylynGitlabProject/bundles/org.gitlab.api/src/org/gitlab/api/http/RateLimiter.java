@@ -0,0 +1,241 @@
+package org.gitlab.api.http;
+
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Paces requests by the rate limit the server announces.
+ * GitLab reports the requests left in the current window (RateLimit-Remaining)
+ * and when the window resets (RateLimit-Reset). A bucket per host and token
+ * holds these requests as tokens: each request takes one, once the bucket runs
+ * low the remaining tokens are spread evenly over the rest of the window, and
+ * an empty bucket waits for the reset. A 429 Too Many Requests blocks the
+ * bucket for the time given by Retry-After, after which the
+ * {@link GitlabHTTPRequestor} replays the request.
+ */
+public class RateLimiter {
+
+   public static final long DEFAULT_MAX_WAIT    = TimeUnit.MINUTES.toMillis(5);
+   public static final int  DEFAULT_MAX_REPLAYS = 3;
+
+   /**
+    * Below this share of the limit, requests are spread over the window
+    */
+   private static final double PACING_THRESHOLD = 0.2;
+   private static final long   DEFAULT_BACKOFF  = TimeUnit.SECONDS.toMillis(1);
+
+   static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+   private final long                maxWait;
+   private final int                 maxReplays;
+   private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+   private long waits;
+   private long waitTimeMillis;
+   private long rejected;
+
+   public RateLimiter() {
+      this(DEFAULT_MAX_WAIT, DEFAULT_MAX_REPLAYS);
+   }
+
+   /**
+    * @param maxWait
+    *        The longest a request waits for the limit in milliseconds, after
+    *        that it is sent regardless
+    * @param maxReplays
+    *        How often a request rejected with 429 is replayed
+    */
+   public RateLimiter(long maxWait, int maxReplays) {
+      this.maxWait = maxWait;
+      this.maxReplays = maxReplays;
+   }
+
+   public int getMaxReplays() {
+      return maxReplays;
+   }
+
+   /**
+    * Waits until the limit allows another request.
+    *
+    * @param key
+    *        Identifies the host and token the limit applies to
+    * @return The permit, to be completed with the response
+    * @throws InterruptedIOException
+    *         if interrupted while waiting
+    */
+   Permit acquire(String key) throws InterruptedIOException {
+      Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+      long deadline = System.currentTimeMillis() + maxWait;
+      long waited = 0;
+      try {
+         while (true) {
+            long now = System.currentTimeMillis();
+            long wait = bucket.take(now, now >= deadline);
+            if (wait <= 0) {
+               return new Permit(bucket);
+            }
+            wait = Math.min(wait, deadline - now);
+            Thread.sleep(wait);
+            waited += wait;
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Interrupted while waiting for the rate limit of " + key);
+      } finally {
+         if (waited > 0) {
+            synchronized (this) {
+               waits++;
+               waitTimeMillis += waited;
+            }
+         }
+      }
+   }
+
+   /**
+    * @return The number of requests that had to wait for the limit
+    */
+   public synchronized long getWaits() {
+      return waits;
+   }
+
+   public synchronized long getWaitTimeMillis() {
+      return waitTimeMillis;
+   }
+
+   /**
+    * @return The number of requests the server rejected with 429
+    */
+   public synchronized long getRejected() {
+      return rejected;
+   }
+
+   /**
+    * A request in flight, counted against the remaining requests until its
+    * response updates them
+    */
+   class Permit {
+
+      private final Bucket bucket;
+
+      Permit(Bucket bucket) {
+         this.bucket = bucket;
+      }
+
+      /**
+       * Updates the bucket from the rate limit headers of a response.
+       *
+       * @param response
+       *        The response, or null if the request failed
+       */
+      void complete(TransportResponse response) {
+         if (response != null && response.getStatusCode() == HTTP_TOO_MANY_REQUESTS) {
+            synchronized (RateLimiter.this) {
+               rejected++;
+            }
+         }
+         bucket.update(response, System.currentTimeMillis());
+      }
+   }
+
+   private static class Bucket {
+
+      private long limit     = -1;
+      private long remaining = -1;
+      private long resetAt;
+      private long blockedUntil;
+      private long nextAllowed;
+      private int  inFlight;
+
+      /**
+       * Takes a token if there is one.
+       *
+       * @param force
+       *        take the token even if the limit is exhausted
+       * @return The time to wait before trying again, 0 if the token was taken
+       */
+      synchronized long take(long now, boolean force) {
+         if (now >= resetAt) {
+            remaining = -1;
+         }
+         if (!force) {
+            if (now < blockedUntil) { return blockedUntil - now; }
+            if (remaining >= 0) {
+               if (remaining == 0) { return resetAt - now; }
+               if (limit > 0 && remaining < limit * PACING_THRESHOLD) {
+                  if (now < nextAllowed) { return nextAllowed - now; }
+                  nextAllowed = now + (resetAt - now) / remaining;
+               }
+            }
+         }
+         if (remaining > 0) {
+            remaining--;
+         }
+         inFlight++;
+         return 0;
+      }
+
+      synchronized void update(TransportResponse response, long now) {
+         inFlight--;
+         if (response == null) { return; }
+
+         Long limit = longHeader(response, "RateLimit-Limit");
+         Long remaining = longHeader(response, "RateLimit-Remaining");
+         Long reset = longHeader(response, "RateLimit-Reset");
+         if (limit != null) {
+            this.limit = limit;
+         }
+         if (remaining != null) {
+            // Requests still in flight are not counted by the server yet
+            this.remaining = Math.max(0, remaining - inFlight);
+         }
+         if (reset != null) {
+            // GitLab sends a unix timestamp, the IETF draft the seconds until the reset
+            this.resetAt = reset > 1000000000L ? TimeUnit.SECONDS.toMillis(reset) : now + TimeUnit.SECONDS.toMillis(reset);
+         }
+
+         if (response.getStatusCode() == HTTP_TOO_MANY_REQUESTS) {
+            long retryAfter = retryAfter(response.getHeader("Retry-After"), now);
+            if (retryAfter <= 0) {
+               retryAfter = resetAt > now ? resetAt - now : DEFAULT_BACKOFF;
+            }
+            blockedUntil = Math.max(blockedUntil, now + retryAfter);
+            this.remaining = 0;
+            this.resetAt = Math.max(resetAt, blockedUntil);
+         }
+      }
+   }
+
+   /**
+    * @return The delay announced by a Retry-After header in milliseconds, or
+    *         0 if there is none
+    */
+   static long retryAfter(String value, long now) {
+      if (value == null) { return 0; }
+      try {
+         return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+      } catch (NumberFormatException e) {
+         try {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            return format.parse(value.trim()).getTime() - now;
+         } catch (ParseException ignore) {
+            return 0;
+         }
+      }
+   }
+
+   private static Long longHeader(TransportResponse response, String name) {
+      String value = response.getHeader(name);
+      if (value == null) { return null; }
+      try {
+         return Long.valueOf(value.trim());
+      } catch (NumberFormatException e) {
+         return null;
+      }
+   }
+}
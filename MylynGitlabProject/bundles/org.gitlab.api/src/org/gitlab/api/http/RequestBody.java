@@ -0,0 +1,60 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * The payload of a {@link TransportRequest}.
+ */
+public interface RequestBody {
+
+   /**
+    * @return The content type of the body or null if none should be sent
+    */
+   String getContentType();
+
+   /**
+    * @return The length of the body in bytes or -1 if it is not known in advance
+    */
+   long getContentLength();
+
+   /**
+    * Writes the body to the given stream.
+    *
+    * @param out
+    *        The stream to write to, must not be closed by the body
+    * @throws IOException
+    *         on write error
+    */
+   void writeTo(OutputStream out) throws IOException;
+
+   /**
+    * Creates a body from the given bytes
+    *
+    * @param contentType
+    *        The content type, may be null
+    * @param content
+    *        The bytes to send
+    * @return A body of fixed length
+    */
+   static RequestBody of(final String contentType, final byte[] content) {
+      return new RequestBody() {
+
+         @Override
+         public String getContentType() {
+            return contentType;
+         }
+
+         @Override
+         public long getContentLength() {
+            return content.length;
+         }
+
+         @Override
+         public void writeTo(OutputStream out) throws IOException {
+            out.write(content);
+         }
+      };
+   }
+}
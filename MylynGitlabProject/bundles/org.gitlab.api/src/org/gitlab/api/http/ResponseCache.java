@@ -0,0 +1,488 @@
+package org.gitlab.api.http;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Cache of GET responses keyed by request and validated by their ETag.
+ * The {@link GitlabHTTPRequestor} sends the ETag of a cached response as
+ * If-None-Match and serves the cached body when the server answers 304 Not
+ * Modified. Bodies are copied while the caller reads them and stored once
+ * read to the end. Responses are held in memory up to a byte limit, least
+ * recently used first out. If a directory is given, responses are also written to disk
+ * and survive both eviction from memory and restarts.
+ */
+public class ResponseCache {
+
+   private static final Logger LOG = LoggerFactory.getLogger(ResponseCache.class);
+
+   public static final long DEFAULT_MAX_MEMORY_BYTES = 8 * 1024 * 1024;
+   public static final long DEFAULT_MAX_DISK_BYTES   = 64 * 1024 * 1024;
+
+   private static final String FILE_SUFFIX = ".cache";
+
+   private final long                         maxMemoryBytes;
+   private final Path                         directory;
+   private final long                         maxDiskBytes;
+   private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+   private long memoryBytes;
+   private long diskBytes;
+   private long hits;
+   private long misses;
+   private long stores;
+   private long evictions;
+
+   /**
+    * Creates a cache holding up to {@link #DEFAULT_MAX_MEMORY_BYTES} in memory
+    */
+   public ResponseCache() {
+      this(DEFAULT_MAX_MEMORY_BYTES);
+   }
+
+   /**
+    * @param maxMemoryBytes
+    *        The maximum size of the bodies held in memory
+    */
+   public ResponseCache(long maxMemoryBytes) {
+      this.maxMemoryBytes = maxMemoryBytes;
+      this.directory = null;
+      this.maxDiskBytes = 0;
+   }
+
+   /**
+    * @param maxMemoryBytes
+    *        The maximum size of the bodies held in memory
+    * @param directory
+    *        The directory of the disk tier, or null to keep responses in memory only
+    * @param maxDiskBytes
+    *        The maximum size of the disk tier
+    * @throws IOException
+    *         if the directory can not be created
+    */
+   public ResponseCache(long maxMemoryBytes, Path directory, long maxDiskBytes) throws IOException {
+      this.maxMemoryBytes = maxMemoryBytes;
+      this.directory = directory;
+      this.maxDiskBytes = maxDiskBytes;
+      if (directory != null) {
+         Files.createDirectories(directory);
+         for (Path file : cacheFiles()) {
+            diskBytes += Files.size(file);
+         }
+      }
+   }
+
+   /**
+    * @return The ETag to validate the cached response with, or null if there is none
+    */
+   synchronized String getETag(String key) {
+      Entry entry = lookup(key);
+      return entry != null ? entry.etag : null;
+   }
+
+   /**
+    * Serves a 304 Not Modified from the cache.
+    *
+    * @return The cached response, or null if it has been evicted meanwhile
+    */
+   synchronized TransportResponse hit(String key, URL url) {
+      Entry entry = lookup(key);
+      if (entry == null) { return null; }
+      hits++;
+      return new BufferedResponse(url, 200, entry.headers, entry.body);
+   }
+
+   /**
+    * Stores the body of a response carrying an ETag while it is read. Bodies
+    * larger than the memory limit are passed on without being stored.
+    *
+    * @return A response handing on the body as it arrives
+    */
+   TransportResponse store(String key, TransportResponse response) {
+      String etag = response.getHeader("ETag");
+      long length = GitlabHTTPRequestor.contentLength(response);
+      synchronized (this) {
+         misses++;
+      }
+      if (etag == null || length > maxMemoryBytes) { return response; }
+      return new StoringResponse(key, etag, response, length);
+   }
+
+   private synchronized void store(String key, Entry entry) {
+      stores++;
+      put(key, entry);
+      if (directory != null) {
+         write(key, entry);
+      }
+   }
+
+   public synchronized CacheMetrics getMetrics() {
+      return new CacheMetrics(entries.size(), memoryBytes, diskBytes, hits, misses, stores, evictions);
+   }
+
+   /**
+    * Drops all responses from memory and disk
+    */
+   public synchronized void clear() throws IOException {
+      entries.clear();
+      memoryBytes = 0;
+      if (directory != null) {
+         for (Path file : cacheFiles()) {
+            Files.deleteIfExists(file);
+         }
+         diskBytes = 0;
+      }
+   }
+
+   private Entry lookup(String key) {
+      Entry entry = entries.get(key);
+      if (entry == null && directory != null) {
+         entry = read(key);
+         if (entry != null) {
+            put(key, entry);
+         }
+      }
+      return entry;
+   }
+
+   private void put(String key, Entry entry) {
+      if (entry.body.length > maxMemoryBytes) { return; }
+      Entry previous = entries.put(key, entry);
+      if (previous != null) {
+         memoryBytes -= previous.body.length;
+      }
+      memoryBytes += entry.body.length;
+
+      Iterator<Entry> eldest = entries.values().iterator();
+      while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+         memoryBytes -= eldest.next().body.length;
+         eldest.remove();
+         evictions++;
+      }
+   }
+
+   private Entry read(String key) {
+      Path file = file(key);
+      if (!Files.isRegularFile(file)) { return null; }
+      try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+         if (!key.equals(in.readUTF())) { return null; }
+         String etag = in.readUTF();
+         Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+         for (int i = in.readInt(); i > 0; i--) {
+            headers.put(in.readUTF(), in.readUTF());
+         }
+         byte[] body = new byte[in.readInt()];
+         in.readFully(body);
+         return new Entry(etag, headers, body);
+      } catch (IOException e) {
+         LOG.debug("Dropping unreadable cache file {}", file, e);
+         delete(file);
+         return null;
+      }
+   }
+
+   private void write(String key, Entry entry) {
+      Path file = file(key);
+      Path temp = null;
+      try {
+         temp = Files.createTempFile(directory, "response", ".tmp");
+         try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+            out.writeUTF(key);
+            out.writeUTF(entry.etag);
+            out.writeInt(entry.headers.size());
+            for (Map.Entry<String, String> header : entry.headers.entrySet()) {
+               out.writeUTF(header.getKey());
+               out.writeUTF(header.getValue());
+            }
+            out.writeInt(entry.body.length);
+            out.write(entry.body);
+         }
+         long size = Files.size(temp);
+         delete(file);
+         Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         diskBytes += size;
+      } catch (IOException e) {
+         LOG.debug("Could not write cache file {}", file, e);
+         try {
+            if (temp != null) {
+               Files.deleteIfExists(temp);
+            }
+         } catch (IOException ignore) {}
+      }
+      if (diskBytes > maxDiskBytes) {
+         trimDisk();
+      }
+   }
+
+   /**
+    * Deletes the least recently written files until the disk tier fits its limit again
+    */
+   private void trimDisk() {
+      try {
+         List<Path> files = cacheFiles();
+         files.sort((a, b) -> {
+            try {
+               return Files.getLastModifiedTime(a).compareTo(Files.getLastModifiedTime(b));
+            } catch (IOException e) {
+               return 0;
+            }
+         });
+         for (Iterator<Path> it = files.iterator(); diskBytes > maxDiskBytes && it.hasNext();) {
+            delete(it.next());
+         }
+      } catch (IOException e) {
+         LOG.debug("Could not trim cache directory {}", directory, e);
+      }
+   }
+
+   private void delete(Path file) {
+      try {
+         long size = Files.isRegularFile(file) ? Files.size(file) : 0;
+         if (Files.deleteIfExists(file)) {
+            diskBytes -= size;
+         }
+      } catch (IOException e) {
+         LOG.debug("Could not delete cache file {}", file, e);
+      }
+   }
+
+   private List<Path> cacheFiles() throws IOException {
+      List<Path> files = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+         for (Path file : stream) {
+            files.add(file);
+         }
+      }
+      return files;
+   }
+
+   private Path file(String key) {
+      try {
+         byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+         StringBuilder name = new StringBuilder();
+         for (byte b : digest) {
+            name.append(String.format("%02x", b));
+         }
+         return directory.resolve(name.append(FILE_SUFFIX).toString());
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   /**
+    * Hands the body on as it is read and keeps a copy, which is stored once the
+    * body has been read to the end. The copy is dropped as soon as it outgrows
+    * the memory limit, the rest of the body is then only passed on.
+    */
+   private class StoringResponse implements TransportResponse {
+
+      private final String              key;
+      private final String              etag;
+      private final TransportResponse   response;
+      private final Map<String, String> headers;
+
+      private Copy        copy;
+      private InputStream body;
+
+      StoringResponse(String key, String etag, TransportResponse response, long length) {
+         this.key = key;
+         this.etag = etag;
+         this.response = response;
+         this.headers = BufferedResponse.headers(response);
+         this.copy = new Copy(length);
+      }
+
+      @Override
+      public URL getUrl() {
+         return response.getUrl();
+      }
+
+      @Override
+      public int getStatusCode() {
+         return response.getStatusCode();
+      }
+
+      @Override
+      public String getHeader(String name) {
+         return response.getHeader(name);
+      }
+
+      @Override
+      public InputStream getBody() throws IOException {
+         if (body == null) {
+            InputStream in = response.getBody();
+            if (in == null) { return null; }
+            body = new FilterInputStream(in) {
+
+               @Override
+               public int read() throws IOException {
+                  int b = super.read();
+                  if (b < 0) {
+                     complete();
+                  } else if (copy != null) {
+                     copy.write(b);
+                     limit();
+                  }
+                  return b;
+               }
+
+               @Override
+               public int read(byte[] b, int off, int len) throws IOException {
+                  int n = super.read(b, off, len);
+                  if (n < 0) {
+                     complete();
+                  } else if (copy != null) {
+                     copy.write(b, off, n);
+                     limit();
+                  }
+                  return n;
+               }
+
+               @Override
+               public long skip(long n) throws IOException {
+                  copy = null;
+                  return super.skip(n);
+               }
+
+               /**
+                * Decoders stop at the end of the document, which is usually
+                * right before the end of the body, the rest is read to store it
+                */
+               @Override
+               public void close() throws IOException {
+                  try {
+                     byte[] buffer = new byte[8192];
+                     while (copy != null && read(buffer) >= 0) {
+                        // copied by read
+                     }
+                  } catch (IOException e) {
+                     copy = null;
+                  } finally {
+                     super.close();
+                  }
+               }
+            };
+         }
+         return body;
+      }
+
+      @Override
+      public void close() {
+         if (body != null) {
+            try {
+               body.close();
+            } catch (IOException ignore) {}
+         }
+         response.close();
+      }
+
+      private void limit() {
+         if (copy.size() > maxMemoryBytes) {
+            copy = null;
+         }
+      }
+
+      private void complete() {
+         if (copy == null) { return; }
+         store(key, new Entry(etag, headers, copy.toByteArray()));
+         copy = null;
+      }
+   }
+
+   /**
+    * The copy of a body, in a single array of the announced length or in
+    * chunks if the length is unknown, so it is neither regrown nor copied
+    * again when it arrives as announced.
+    */
+   private static class Copy {
+
+      private static final int CHUNK = 8192;
+
+      private final List<byte[]> chunks = new ArrayList<>();
+      private byte[]             chunk;
+      private int                position;
+      private long               size;
+
+      Copy(long length) {
+         chunk = new byte[length > 0 && length <= Integer.MAX_VALUE ? (int) length : CHUNK];
+      }
+
+      void write(int b) {
+         if (position == chunk.length) {
+            next();
+         }
+         chunk[position++] = (byte) b;
+         size++;
+      }
+
+      void write(byte[] b, int off, int len) {
+         while (len > 0) {
+            if (position == chunk.length) {
+               next();
+            }
+            int n = Math.min(len, chunk.length - position);
+            System.arraycopy(b, off, chunk, position, n);
+            position += n;
+            off += n;
+            len -= n;
+            size += n;
+         }
+      }
+
+      long size() {
+         return size;
+      }
+
+      byte[] toByteArray() {
+         if (chunks.isEmpty() && position == chunk.length) { return chunk; }
+         byte[] bytes = new byte[(int) size];
+         int offset = 0;
+         for (byte[] full : chunks) {
+            System.arraycopy(full, 0, bytes, offset, full.length);
+            offset += full.length;
+         }
+         System.arraycopy(chunk, 0, bytes, offset, position);
+         return bytes;
+      }
+
+      private void next() {
+         chunks.add(chunk);
+         chunk = new byte[CHUNK];
+         position = 0;
+      }
+   }
+
+   private static class Entry {
+
+      final String              etag;
+      final Map<String, String> headers;
+      final byte[]              body;
+
+      Entry(String etag, Map<String, String> headers, byte[] body) {
+         this.etag = etag;
+         this.headers = headers;
+         this.body = body;
+      }
+   }
+}
@@ -0,0 +1,131 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Decides whether a failed request is sent again and how long to wait before.
+ * Only idempotent requests are retried, as sending them twice has the same
+ * effect as sending them once; a POST that timed out may well have been
+ * processed. They are retried on connection failures, timeouts and the
+ * 502, 503 and 504 of proxies and load balancers. The delay grows
+ * exponentially with every attempt and is jittered, so clients failing
+ * together do not retry together. A Retry-After of the server is honored.
+ */
+public class RetryPolicy {
+
+   public static final int  DEFAULT_MAX_RETRIES     = 3;
+   public static final long DEFAULT_INITIAL_BACKOFF = 250;
+   public static final long DEFAULT_MAX_BACKOFF     = TimeUnit.SECONDS.toMillis(10);
+
+   private static final Set<Method> IDEMPOTENT = EnumSet.of(Method.GET, Method.HEAD, Method.PUT, Method.DELETE, Method.OPTIONS, Method.TRACE);
+
+   private final int  maxRetries;
+   private final long initialBackoff;
+   private final long maxBackoff;
+
+   private long retries;
+   private long exhausted;
+
+   public RetryPolicy() {
+      this(DEFAULT_MAX_RETRIES, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+   }
+
+   /**
+    * @param maxRetries
+    *        How often a request is retried at most
+    * @param initialBackoff
+    *        The delay before the first retry in milliseconds, doubled for every further retry
+    * @param maxBackoff
+    *        The longest delay in milliseconds. A Retry-After beyond it is not waited for.
+    */
+   public RetryPolicy(int maxRetries, long initialBackoff, long maxBackoff) {
+      this.maxRetries = maxRetries;
+      this.initialBackoff = initialBackoff;
+      this.maxBackoff = maxBackoff;
+   }
+
+   public boolean isIdempotent(Method method) {
+      return IDEMPOTENT.contains(method);
+   }
+
+   /**
+    * @return true for failures that may be gone on the next attempt
+    */
+   public boolean isRetryable(IOException e) {
+      if (e instanceof SocketTimeoutException) { return true; }
+      if (e instanceof InterruptedIOException) { return false; }
+      return e instanceof ConnectException || e instanceof NoRouteToHostException || e instanceof SocketException;
+   }
+
+   public boolean isRetryable(int statusCode) {
+      return statusCode == HttpURLConnection.HTTP_BAD_GATEWAY || statusCode == HttpURLConnection.HTTP_UNAVAILABLE ||
+             statusCode == HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+   }
+
+   /**
+    * Counts the next attempt, if there is one.
+    *
+    * @param attempt
+    *        The number of retries so far
+    * @param retryAfter
+    *        The Retry-After header of the failed response, or null
+    * @return The time to wait before the retry in milliseconds, or -1 if the
+    *         request should not be retried
+    */
+   synchronized long nextDelay(int attempt, String retryAfter) {
+      long delay = attempt < maxRetries ? delay(attempt, retryAfter) : -1;
+      if (delay < 0) {
+         exhausted++;
+      } else {
+         retries++;
+      }
+      return delay;
+   }
+
+   void await(long delay) throws InterruptedIOException {
+      try {
+         Thread.sleep(delay);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Interrupted while waiting to retry");
+      }
+   }
+
+   /**
+    * @return The jittered delay before the given retry, or -1 if the server
+    *         asks to wait longer than the maximum backoff
+    */
+   private long delay(int attempt, String retryAfter) {
+      long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempt, 30));
+      long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+
+      long requested = RateLimiter.retryAfter(retryAfter, System.currentTimeMillis());
+      if (requested > maxBackoff) { return -1; }
+      return Math.max(delay, requested);
+   }
+
+   /**
+    * @return The number of requests sent again
+    */
+   public synchronized long getRetries() {
+      return retries;
+   }
+
+   /**
+    * @return The number of requests given up after all retries failed
+    */
+   public synchronized long getExhausted() {
+      return exhausted;
+   }
+}
@@ -0,0 +1,133 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+
+/**
+ * Coalesces concurrent identical requests.
+ * The first caller for a key sends the request, callers arriving before its
+ * response does wait for it and share the response instead of sending a
+ * duplicate. Failures are shared the same way. The body is only buffered if
+ * another caller is waiting, otherwise it is streamed to the first caller.
+ * Callers arriving once the response is in send a request of their own.
+ */
+public class SingleFlight {
+
+   private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+   private long sent;
+   private long coalesced;
+
+   interface Call {
+
+      TransportResponse call() throws IOException;
+   }
+
+   TransportResponse execute(String key, Call call) throws IOException {
+      Flight flight = new Flight();
+      while (true) {
+         Flight existing = inFlight.putIfAbsent(key, flight);
+         if (existing == null) {
+            break;
+         }
+         if (existing.join()) {
+            synchronized (this) {
+               coalesced++;
+            }
+            return await(existing.result);
+         }
+         // Its response arrived meanwhile, the flight is about to leave the map
+         inFlight.remove(key, existing);
+      }
+
+      synchronized (this) {
+         sent++;
+      }
+      try {
+         TransportResponse response = call.call();
+         boolean shared = flight.seal();
+         inFlight.remove(key, flight);
+         if (!shared) { return response; }
+         BufferedResponse buffered = BufferedResponse.of(response);
+         flight.result.complete(buffered);
+         return buffered;
+      } catch (IOException | RuntimeException | Error e) {
+         flight.seal();
+         inFlight.remove(key, flight);
+         flight.result.completeExceptionally(e);
+         throw e;
+      }
+   }
+
+   private static TransportResponse await(CompletableFuture<BufferedResponse> flight) throws IOException {
+      try {
+         return flight.get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new InterruptedIOException("Interrupted while waiting for a coalesced request");
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof IOException) { throw (IOException) cause; }
+         if (cause instanceof RuntimeException) { throw (RuntimeException) cause; }
+         if (cause instanceof Error) { throw (Error) cause; }
+         throw new IOException(cause);
+      }
+   }
+
+   /**
+    * @return The number of requests currently in flight
+    */
+   public int getInFlight() {
+      return inFlight.size();
+   }
+
+   /**
+    * @return The number of requests sent on behalf of one or more callers
+    */
+   public synchronized long getSent() {
+      return sent;
+   }
+
+   /**
+    * @return The number of callers served by a request sent for another caller
+    */
+   public synchronized long getCoalesced() {
+      return coalesced;
+   }
+
+   /**
+    * A request in flight and the callers waiting for it
+    */
+   private static class Flight {
+
+      final CompletableFuture<BufferedResponse> result = new CompletableFuture<>();
+
+      private int     waiters;
+      private boolean sealed;
+
+      /**
+       * @return false if the response already arrived and no callers are
+       *         accepted anymore
+       */
+      synchronized boolean join() {
+         if (sealed) { return false; }
+         waiters++;
+         return true;
+      }
+
+      /**
+       * Stops accepting callers.
+       *
+       * @return Whether callers are waiting
+       */
+      synchronized boolean seal() {
+         sealed = true;
+         return waiters > 0;
+      }
+   }
+}
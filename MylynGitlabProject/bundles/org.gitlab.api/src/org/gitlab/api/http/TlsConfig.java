@@ -0,0 +1,96 @@
+package org.gitlab.api.http;
+
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+
+/**
+ * The TLS settings of the connections of a {@link org.gitlab.api.GitlabAPI}.
+ * Applied to each connection instead of the JVM wide defaults of
+ * {@link javax.net.ssl.HttpsURLConnection}, so other users of the JVM are not
+ * affected. The socket factory is created once: connections kept alive by
+ * the JDK are only reused with the same factory, and sessions cached by the
+ * context are resumed on new connections with an abbreviated handshake.
+ */
+public class TlsConfig {
+
+   private final SSLContext       sslContext;
+   private final SSLSocketFactory socketFactory;
+   private final HostnameVerifier hostnameVerifier;
+
+   /**
+    * @param sslContext
+    *        The context to create connections with
+    * @param hostnameVerifier
+    *        The verifier of the host names, or null for the default one
+    */
+   public TlsConfig(SSLContext sslContext, HostnameVerifier hostnameVerifier) {
+      this.sslContext = sslContext;
+      this.socketFactory = sslContext.getSocketFactory();
+      this.hostnameVerifier = hostnameVerifier;
+   }
+
+   /**
+    * Creates settings accepting any certificate for any host.
+    */
+   public static TlsConfig trustAll() {
+      try {
+         SSLContext context = SSLContext.getInstance("TLS");
+         context.init(null, new TrustManager[] { new TrustAllManager() }, null);
+         // Added per https://github.com/timols/java-gitlab-api/issues/44
+         return new TlsConfig(context, (hostname, session) -> true);
+      } catch (GeneralSecurityException e) {
+         throw new IllegalStateException("TLS is not available", e);
+      }
+   }
+
+   public SSLContext getSslContext() {
+      return sslContext;
+   }
+
+   public SSLSocketFactory getSocketFactory() {
+      return socketFactory;
+   }
+
+   public HostnameVerifier getHostnameVerifier() {
+      return hostnameVerifier;
+   }
+
+   /**
+    * Being an extended trust manager, the JDK does not add its own host name
+    * check on top, which the HTTP/2 client would otherwise enforce.
+    */
+   private static class TrustAllManager extends X509ExtendedTrustManager {
+
+      @Override
+      public X509Certificate[] getAcceptedIssuers() {
+         return new X509Certificate[0];
+      }
+
+      @Override
+      public void checkClientTrusted(X509Certificate[] chain, String authType) {}
+
+      @Override
+      public void checkServerTrusted(X509Certificate[] chain, String authType) {}
+
+      @Override
+      public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {}
+
+      @Override
+      public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {}
+
+      @Override
+      public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {}
+
+      @Override
+      public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {}
+   }
+}
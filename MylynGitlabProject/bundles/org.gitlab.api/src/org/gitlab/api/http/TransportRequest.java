@@ -0,0 +1,138 @@
+package org.gitlab.api.http;
+
+import java.net.Proxy;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A single HTTP request as handed to a {@link HttpTransport}.
+ * Has a fluent api for method chaining.
+ */
+public class TransportRequest {
+
+   private final Method              method;
+   private final Map<String, String> headers = new LinkedHashMap<>();
+
+   private URL         url;
+   private RequestBody body;
+   private Proxy       proxy;
+   private int         connectTimeout;
+   private int         readTimeout;
+   private TlsConfig   tls;
+   private Endpoint    endpoint;
+
+   public TransportRequest(Method method, URL url) {
+      this.method = method;
+      this.url = url;
+   }
+
+   /**
+    * Replaces the url, e.g. to add query parameters in an {@link Interceptor}.
+    *
+    * @return this
+    */
+   public TransportRequest url(URL url) {
+      this.url = url;
+      return this;
+   }
+
+   public TransportRequest header(String name, String value) {
+      headers.put(name, value);
+      return this;
+   }
+
+   public TransportRequest body(RequestBody body) {
+      this.body = body;
+      return this;
+   }
+
+   public TransportRequest proxy(Proxy proxy) {
+      this.proxy = proxy;
+      return this;
+   }
+
+   /**
+    * Sets the timeouts in milliseconds, 0 means infinite.
+    *
+    * @param connectTimeout
+    *        The connection timeout
+    * @param readTimeout
+    *        The response read timeout
+    * @return this
+    */
+   public TransportRequest timeouts(int connectTimeout, int readTimeout) {
+      this.connectTimeout = connectTimeout;
+      this.readTimeout = readTimeout;
+      return this;
+   }
+
+   /**
+    * @param tls
+    *        The TLS settings, or null for the defaults of the JVM
+    * @return this
+    */
+   public TransportRequest tls(TlsConfig tls) {
+      this.tls = tls;
+      return this;
+   }
+
+   /**
+    * @param endpoint
+    *        The endpoint the url was built from, or null if it was built otherwise
+    * @return this
+    */
+   public TransportRequest endpoint(Endpoint endpoint) {
+      this.endpoint = endpoint;
+      return this;
+   }
+
+   public Method getMethod() {
+      return method;
+   }
+
+   public URL getUrl() {
+      return url;
+   }
+
+   public Map<String, String> getHeaders() {
+      return Collections.unmodifiableMap(headers);
+   }
+
+   public String getHeader(String name) {
+      for (Map.Entry<String, String> header : headers.entrySet()) {
+         if (header.getKey().equalsIgnoreCase(name)) { return header.getValue(); }
+      }
+      return null;
+   }
+
+   public RequestBody getBody() {
+      return body;
+   }
+
+   public Proxy getProxy() {
+      return proxy;
+   }
+
+   public int getConnectTimeout() {
+      return connectTimeout;
+   }
+
+   public int getReadTimeout() {
+      return readTimeout;
+   }
+
+   public TlsConfig getTls() {
+      return tls;
+   }
+
+   /**
+    * @return The endpoint the url was built from, a stable key for the kind of
+    *         request, or null if the url was built otherwise
+    */
+   public Endpoint getEndpoint() {
+      return endpoint;
+   }
+}
@@ -0,0 +1,46 @@
+package org.gitlab.api.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+
+/**
+ * The response to a {@link TransportRequest}.
+ * Closing the response releases the underlying connection so it can be reused
+ * by the transport.
+ */
+public interface TransportResponse extends Closeable {
+
+   /**
+    * @return The url the response was received from
+    */
+   URL getUrl();
+
+   /**
+    * @return The HTTP status code
+    */
+   int getStatusCode();
+
+   /**
+    * @param name
+    *        The header name, case insensitive
+    * @return The first value of the header or null if not present
+    */
+   String getHeader(String name);
+
+   /**
+    * Returns the raw body of the response as sent by the server, i.e. still
+    * compressed if a Content-Encoding was applied. For error responses this is
+    * the error body.
+    *
+    * @return The body stream or null if the response has no body
+    * @throws IOException
+    *         on read error
+    */
+   InputStream getBody() throws IOException;
+
+   @Override
+   void close();
+}
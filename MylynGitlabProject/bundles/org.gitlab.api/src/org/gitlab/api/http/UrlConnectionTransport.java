@@ -0,0 +1,189 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.util.Map;
+
+import javax.net.ssl.HttpsURLConnection;
+
+
+/**
+ * Default transport based on {@link HttpURLConnection}.
+ * Connections are never disconnected after a successful exchange, closing the
+ * response stream hands the socket back to the JDK keep-alive cache, so
+ * subsequent requests to the same host skip the TCP and TLS handshake.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+   /**
+    * The most bytes read from an unconsumed body to keep its connection alive
+    */
+   static final int MAX_DRAIN_BYTES = 64 * 1024;
+
+   private final ConnectionPool pool;
+
+   public UrlConnectionTransport() {
+      this(new ConnectionPool());
+   }
+
+   public UrlConnectionTransport(ConnectionPool pool) {
+      this.pool = pool;
+   }
+
+   public ConnectionPool getPool() {
+      return pool;
+   }
+
+   @Override
+   public TransportResponse execute(TransportRequest request) throws IOException {
+      ConnectionPool.Lease lease = pool.acquire(request.getUrl(), request.getConnectTimeout());
+      HttpURLConnection connection = null;
+      try {
+         connection = open(request);
+
+         RequestBody body = request.getBody();
+         if (body != null) {
+            connection.setDoOutput(true);
+            if (body.getContentType() != null) {
+               connection.setRequestProperty("Content-Type", body.getContentType());
+            }
+            // Stream the body in either case, otherwise HttpURLConnection buffers all of it
+            if (body.getContentLength() >= 0) {
+               connection.setFixedLengthStreamingMode(body.getContentLength());
+            } else {
+               connection.setChunkedStreamingMode(0);
+            }
+            try (OutputStream out = connection.getOutputStream()) {
+               body.writeTo(out);
+            }
+         }
+
+         return new UrlConnectionResponse(connection, connection.getResponseCode(), lease);
+      } catch (IOException | RuntimeException e) {
+         if (connection != null) {
+            connection.disconnect();
+         }
+         lease.release(false);
+         throw e;
+      }
+   }
+
+   @Override
+   public void close() {}
+
+   private HttpURLConnection open(TransportRequest request) throws IOException {
+      URL url = request.getUrl();
+      HttpURLConnection connection = (HttpURLConnection) (request.getProxy() != null ? url.openConnection(request.getProxy()) : url
+            .openConnection());
+
+      for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+         connection.setRequestProperty(header.getKey(), header.getValue());
+      }
+
+      TlsConfig tls = request.getTls();
+      if (tls != null && connection instanceof HttpsURLConnection) {
+         ((HttpsURLConnection) connection).setSSLSocketFactory(tls.getSocketFactory());
+         if (tls.getHostnameVerifier() != null) {
+            ((HttpsURLConnection) connection).setHostnameVerifier(tls.getHostnameVerifier());
+         }
+      }
+
+      connection.setReadTimeout(request.getReadTimeout());
+      connection.setConnectTimeout(request.getConnectTimeout());
+
+      String method = request.getMethod().name();
+      try {
+         connection.setRequestMethod(method);
+      } catch (ProtocolException e) {
+         // Hack in case the API uses a non-standard HTTP verb
+         try {
+            Field methodField = HttpURLConnection.class.getDeclaredField("method");
+            methodField.setAccessible(true);
+            methodField.set(connection, method);
+         } catch (Exception x) {
+            throw new IOException("Failed to set the custom verb", x);
+         }
+      }
+      return connection;
+   }
+
+   private static class UrlConnectionResponse implements TransportResponse {
+
+      private final HttpURLConnection    connection;
+      private final int                  status;
+      private final ConnectionPool.Lease lease;
+
+      private InputStream body;
+
+      UrlConnectionResponse(HttpURLConnection connection, int status, ConnectionPool.Lease lease) {
+         this.connection = connection;
+         this.status = status;
+         this.lease = lease;
+      }
+
+      @Override
+      public URL getUrl() {
+         return connection.getURL();
+      }
+
+      @Override
+      public int getStatusCode() {
+         return status;
+      }
+
+      @Override
+      public String getHeader(String name) {
+         return connection.getHeaderField(name);
+      }
+
+      @Override
+      public InputStream getBody() throws IOException {
+         if (body == null) {
+            body = status >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+         }
+         return body;
+      }
+
+      /**
+       * Drains what is left of the body, error bodies included, as the JDK only
+       * reuses a socket whose response has been read to the end. Large remainders
+       * are not worth reading, the connection is dropped instead.
+       */
+      @Override
+      public void close() {
+         boolean reusable = true;
+         try {
+            InputStream in = getBody();
+            if (in != null) {
+               reusable = drain(in);
+               in.close();
+            }
+         } catch (IOException e) {
+            reusable = false;
+         }
+         if (!reusable) {
+            connection.disconnect();
+         }
+         lease.release(reusable);
+      }
+
+      /**
+       * @return true if the stream was read to the end within {@link #MAX_DRAIN_BYTES}
+       */
+      private static boolean drain(InputStream in) throws IOException {
+         byte[] buffer = new byte[8192];
+         long drained = 0;
+         int read;
+         while ((read = in.read(buffer)) >= 0) {
+            drained += read;
+            if (drained > MAX_DRAIN_BYTES) { return false; }
+         }
+         return true;
+      }
+   }
+}
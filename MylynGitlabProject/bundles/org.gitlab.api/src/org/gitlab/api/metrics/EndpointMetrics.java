@@ -0,0 +1,64 @@
+package org.gitlab.api.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * The live counters of one endpoint
+ */
+class EndpointMetrics {
+
+   private final String                            endpoint;
+   private final LatencyHistogram                  latency   = new LatencyHistogram();
+   private final ConcurrentMap<Integer, LongAdder> statuses  = new ConcurrentHashMap<>();
+   private final LongAdder                         failures  = new LongAdder();
+   private final LongAdder                         bytesIn   = new LongAdder();
+   private final LongAdder                         bytesOut  = new LongAdder();
+   private final LongAdder                         retries   = new LongAdder();
+   private final LongAdder                         cacheHits = new LongAdder();
+
+   EndpointMetrics(String endpoint) {
+      this.endpoint = endpoint;
+   }
+
+   void response(int status, long nanos, long sent) {
+      latency.record(nanos);
+      statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+      if (sent > 0) {
+         bytesOut.add(sent);
+      }
+   }
+
+   void failure(long nanos, long sent) {
+      latency.record(nanos);
+      failures.increment();
+      if (sent > 0) {
+         bytesOut.add(sent);
+      }
+   }
+
+   void received(long bytes) {
+      bytesIn.add(bytes);
+   }
+
+   void retry() {
+      retries.increment();
+   }
+
+   void cacheHit() {
+      cacheHits.increment();
+   }
+
+   EndpointSnapshot snapshot() {
+      Map<Integer, Long> statusCounts = new TreeMap<>();
+      for (Map.Entry<Integer, LongAdder> status : statuses.entrySet()) {
+         statusCounts.put(status.getKey(), status.getValue().sum());
+      }
+      return new EndpointSnapshot(endpoint, latency.getCount(), statusCounts, failures.sum(), bytesIn.sum(), bytesOut.sum(), retries.sum(),
+            cacheHits.sum(), latency.getSumMillis(), latency.getMaxMillis(), latency.getCounts());
+   }
+}
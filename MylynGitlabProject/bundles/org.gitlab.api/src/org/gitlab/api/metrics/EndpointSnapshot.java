@@ -0,0 +1,136 @@
+package org.gitlab.api.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+
+/**
+ * Immutable snapshot of the metrics of one endpoint, e.g. "GET /projects/:id/issues"
+ */
+public class EndpointSnapshot {
+
+   private final String             endpoint;
+   private final long               requests;
+   private final Map<Integer, Long> statusCounts;
+   private final long               failures;
+   private final long               bytesIn;
+   private final long               bytesOut;
+   private final long               retries;
+   private final long               cacheHits;
+   private final long               totalTimeMillis;
+   private final long               maxTimeMillis;
+   private final long[]             latencyBuckets;
+
+   public EndpointSnapshot(String endpoint, long requests, Map<Integer, Long> statusCounts, long failures, long bytesIn, long bytesOut,
+         long retries, long cacheHits, long totalTimeMillis, long maxTimeMillis, long[] latencyBuckets) {
+      this.endpoint = endpoint;
+      this.requests = requests;
+      this.statusCounts = Collections.unmodifiableMap(statusCounts);
+      this.failures = failures;
+      this.bytesIn = bytesIn;
+      this.bytesOut = bytesOut;
+      this.retries = retries;
+      this.cacheHits = cacheHits;
+      this.totalTimeMillis = totalTimeMillis;
+      this.maxTimeMillis = maxTimeMillis;
+      this.latencyBuckets = latencyBuckets.clone();
+   }
+
+   /**
+    * @return The method and url template of the endpoint
+    */
+   public String getEndpoint() {
+      return endpoint;
+   }
+
+   /**
+    * @return The number of requests, including the failed ones
+    */
+   public long getRequests() {
+      return requests;
+   }
+
+   /**
+    * @return The number of responses by status code
+    */
+   public Map<Integer, Long> getStatusCounts() {
+      return statusCounts;
+   }
+
+   /**
+    * @return The number of requests that failed without a response
+    */
+   public long getFailures() {
+      return failures;
+   }
+
+   /**
+    * @return The number of body bytes received from the server
+    */
+   public long getBytesIn() {
+      return bytesIn;
+   }
+
+   /**
+    * @return The number of body bytes sent to the server
+    */
+   public long getBytesOut() {
+      return bytesOut;
+   }
+
+   public long getRetries() {
+      return retries;
+   }
+
+   /**
+    * @return The number of requests answered with 304 Not Modified and served from the cache
+    */
+   public long getCacheHits() {
+      return cacheHits;
+   }
+
+   public long getTotalTimeMillis() {
+      return totalTimeMillis;
+   }
+
+   public long getMaxTimeMillis() {
+      return maxTimeMillis;
+   }
+
+   public long getMeanTimeMillis() {
+      return requests > 0 ? totalTimeMillis / requests : 0;
+   }
+
+   public long getP50Millis() {
+      return LatencyHistogram.percentile(latencyBuckets, maxTimeMillis, 0.5);
+   }
+
+   public long getP90Millis() {
+      return LatencyHistogram.percentile(latencyBuckets, maxTimeMillis, 0.9);
+   }
+
+   public long getP99Millis() {
+      return LatencyHistogram.percentile(latencyBuckets, maxTimeMillis, 0.99);
+   }
+
+   /**
+    * @return The number of requests per latency bucket, see {@link #getLatencyBucketBounds()}
+    */
+   public long[] getLatencyBuckets() {
+      return latencyBuckets.clone();
+   }
+
+   /**
+    * @return The upper bounds of the latency buckets in milliseconds, the last bucket is unbounded
+    */
+   public long[] getLatencyBucketBounds() {
+      return LatencyHistogram.BOUNDS.clone();
+   }
+
+   @Override
+   public String toString() {
+      return endpoint + " [requests=" + requests + ", statuses=" + statusCounts + ", failures=" + failures + ", mean=" + getMeanTimeMillis() +
+             "ms, p50=" + getP50Millis() + "ms, p90=" + getP90Millis() + "ms, p99=" + getP99Millis() + "ms, max=" + maxTimeMillis + "ms, bytesIn=" +
+             bytesIn + ", bytesOut=" + bytesOut + ", retries=" + retries + ", cacheHits=" + cacheHits + "]";
+   }
+}
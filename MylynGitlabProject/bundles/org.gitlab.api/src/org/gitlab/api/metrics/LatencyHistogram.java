@@ -0,0 +1,78 @@
+package org.gitlab.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Lock free histogram of latencies with fixed, roughly logarithmic buckets.
+ * Percentiles are estimated by the upper bound of the bucket they fall in.
+ */
+class LatencyHistogram {
+
+   /**
+    * The upper bounds of the buckets in milliseconds, the last bucket is unbounded
+    */
+   static final long[] BOUNDS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000 };
+
+   private final AtomicLongArray counts = new AtomicLongArray(BOUNDS.length + 1);
+   private final LongAdder       count  = new LongAdder();
+   private final LongAdder       sum    = new LongAdder();
+   private final LongAccumulator max    = new LongAccumulator(Math::max, 0);
+
+   void record(long nanos) {
+      long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+      int bucket = 0;
+      while (bucket < BOUNDS.length && millis > BOUNDS[bucket]) {
+         bucket++;
+      }
+      counts.incrementAndGet(bucket);
+      count.increment();
+      sum.add(millis);
+      max.accumulate(millis);
+   }
+
+   long getCount() {
+      return count.sum();
+   }
+
+   long getSumMillis() {
+      return sum.sum();
+   }
+
+   long getMaxMillis() {
+      return max.get();
+   }
+
+   long[] getCounts() {
+      long[] copy = new long[counts.length()];
+      for (int i = 0; i < copy.length; i++) {
+         copy[i] = counts.get(i);
+      }
+      return copy;
+   }
+
+   /**
+    * @param counts
+    *        The bucket counts of a snapshot
+    * @param quantile
+    *        The quantile between 0 and 1
+    * @return The upper bound of the bucket holding the quantile, the maximum for the last bucket
+    */
+   static long percentile(long[] counts, long maxMillis, double quantile) {
+      long total = 0;
+      for (long c : counts) {
+         total += c;
+      }
+      if (total == 0) { return 0; }
+      long rank = (long) Math.ceil(quantile * total);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+         seen += counts[i];
+         if (seen >= rank) { return i < BOUNDS.length ? Math.min(BOUNDS[i], maxMillis) : maxMillis; }
+      }
+      return maxMillis;
+   }
+}
@@ -0,0 +1,18 @@
+package org.gitlab.api.metrics;
+
+import java.util.List;
+
+
+/**
+ * JMX view of a {@link MetricsRegistry}
+ */
+public interface MetricsMXBean {
+
+   List<EndpointSnapshot> getEndpoints();
+
+   long getRequests();
+
+   long getTotalTimeMillis();
+
+   void reset();
+}
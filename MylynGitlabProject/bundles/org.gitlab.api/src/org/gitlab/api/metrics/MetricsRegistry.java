@@ -0,0 +1,174 @@
+package org.gitlab.api.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+/**
+ * Collects latency, status codes, payload sizes, retries and cache hits per
+ * endpoint. Endpoints are identified by method and url template, e.g.
+ * "GET /projects/:id/issues/:issue_iid". Requests built from an
+ * {@link org.gitlab.api.http.Endpoint} are recorded under its template,
+ * for others the ids in the url are replaced by placeholders, see
+ * {@link #endpoint(String, String)}. Recording is lock free, so the registry
+ * can stay enabled in production.
+ */
+public class MetricsRegistry implements MetricsMXBean {
+
+   /**
+    * Above this number of endpoints, further ones are recorded as {@link #OTHER_ENDPOINT}
+    */
+   public static final int    MAX_ENDPOINTS  = 500;
+   public static final String OTHER_ENDPOINT = "other";
+
+   private static final Pattern NUMBER = Pattern.compile("\\d+");
+   private static final Pattern SHA    = Pattern.compile("(?=.*\\d)(?=.*[a-f])[0-9a-f]{7,64}");
+
+   private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+   private ObjectName objectName;
+
+   /**
+    * Records an exchange that got a response.
+    *
+    * @param endpoint
+    *        The endpoint, see {@link #endpoint(String, String)}
+    * @param status
+    *        The status code of the response
+    * @param nanos
+    *        The time until the response arrived
+    * @param bytesOut
+    *        The size of the request body, or a negative value if unknown
+    */
+   public void recordResponse(String endpoint, int status, long nanos, long bytesOut) {
+      metrics(endpoint).response(status, nanos, bytesOut);
+   }
+
+   /**
+    * Records an exchange that failed without a response.
+    */
+   public void recordFailure(String endpoint, long nanos, long bytesOut) {
+      metrics(endpoint).failure(nanos, bytesOut);
+   }
+
+   public void recordBytesIn(String endpoint, long bytes) {
+      metrics(endpoint).received(bytes);
+   }
+
+   public void recordRetry(String endpoint) {
+      metrics(endpoint).retry();
+   }
+
+   public void recordCacheHit(String endpoint) {
+      metrics(endpoint).cacheHit();
+   }
+
+   public MetricsSnapshot getSnapshot() {
+      List<EndpointSnapshot> snapshots = new ArrayList<>();
+      for (EndpointMetrics metrics : endpoints.values()) {
+         snapshots.add(metrics.snapshot());
+      }
+      return new MetricsSnapshot(System.currentTimeMillis(), snapshots);
+   }
+
+   @Override
+   public List<EndpointSnapshot> getEndpoints() {
+      return getSnapshot().getEndpoints();
+   }
+
+   @Override
+   public long getRequests() {
+      return getSnapshot().getRequests();
+   }
+
+   @Override
+   public long getTotalTimeMillis() {
+      return getSnapshot().getTotalTimeMillis();
+   }
+
+   @Override
+   public void reset() {
+      endpoints.clear();
+   }
+
+   /**
+    * Registers the registry with the platform MBean server, replacing a
+    * registry registered under the same name before.
+    *
+    * @param name
+    *        The object name, e.g. "org.gitlab.api:type=Metrics,name=gitlab.example.com"
+    * @throws JMException
+    *         if the name is invalid or the registration fails
+    */
+   public synchronized void register(String name) throws JMException {
+      unregister();
+      ObjectName objectName = new ObjectName(name);
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(objectName)) {
+         server.unregisterMBean(objectName);
+      }
+      server.registerMBean(this, objectName);
+      this.objectName = objectName;
+   }
+
+   public synchronized void unregister() throws JMException {
+      if (objectName != null) {
+         try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+         } catch (InstanceNotFoundException ignore) {}
+         objectName = null;
+      }
+   }
+
+   /**
+    * Builds the endpoint of a request. Numeric ids, url encoded paths and
+    * commit shas in the path are replaced by placeholders.
+    *
+    * @param method
+    *        The method of the request
+    * @param path
+    *        The path of the request below the api namespace
+    * @return The endpoint, e.g. "GET /projects/:id/issues/:id"
+    */
+   public static String endpoint(String method, String path) {
+      int query = path.indexOf('?');
+      if (query >= 0) {
+         path = path.substring(0, query);
+      }
+      StringBuilder template = new StringBuilder(method).append(' ');
+      for (String segment : path.split("/")) {
+         if (segment.isEmpty()) {
+            continue;
+         }
+         template.append('/');
+         if (NUMBER.matcher(segment).matches() || segment.contains("%")) {
+            template.append(":id");
+         } else if (SHA.matcher(segment).matches()) {
+            template.append(":sha");
+         } else {
+            template.append(segment);
+         }
+      }
+      return template.toString();
+   }
+
+   private EndpointMetrics metrics(String endpoint) {
+      EndpointMetrics metrics = endpoints.get(endpoint);
+      if (metrics == null) {
+         if (endpoints.size() >= MAX_ENDPOINTS) {
+            endpoint = OTHER_ENDPOINT;
+         }
+         metrics = endpoints.computeIfAbsent(endpoint, EndpointMetrics::new);
+      }
+      return metrics;
+   }
+}
@@ -0,0 +1,74 @@
+package org.gitlab.api.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Immutable snapshot of a {@link MetricsRegistry}, the endpoints ordered by
+ * the total time spent on them
+ */
+public class MetricsSnapshot {
+
+   private final long                   timestamp;
+   private final List<EndpointSnapshot> endpoints;
+
+   public MetricsSnapshot(long timestamp, List<EndpointSnapshot> endpoints) {
+      List<EndpointSnapshot> sorted = new ArrayList<>(endpoints);
+      sorted.sort(Comparator.comparingLong(EndpointSnapshot::getTotalTimeMillis).reversed());
+      this.timestamp = timestamp;
+      this.endpoints = Collections.unmodifiableList(sorted);
+   }
+
+   /**
+    * @return The time the snapshot was taken in milliseconds since the epoch
+    */
+   public long getTimestamp() {
+      return timestamp;
+   }
+
+   public List<EndpointSnapshot> getEndpoints() {
+      return endpoints;
+   }
+
+   /**
+    * @return The snapshot of the endpoint, or null if it has not been called
+    */
+   public EndpointSnapshot getEndpoint(String endpoint) {
+      for (EndpointSnapshot snapshot : endpoints) {
+         if (snapshot.getEndpoint().equals(endpoint)) { return snapshot; }
+      }
+      return null;
+   }
+
+   public long getRequests() {
+      long requests = 0;
+      for (EndpointSnapshot endpoint : endpoints) {
+         requests += endpoint.getRequests();
+      }
+      return requests;
+   }
+
+   public long getTotalTimeMillis() {
+      long time = 0;
+      for (EndpointSnapshot endpoint : endpoints) {
+         time += endpoint.getTotalTimeMillis();
+      }
+      return time;
+   }
+
+   /**
+    * @return One line per endpoint, slowest first
+    */
+   @Override
+   public String toString() {
+      StringBuilder builder = new StringBuilder("MetricsSnapshot [requests=").append(getRequests()).append(", totalTime=").append(
+            getTotalTimeMillis()).append("ms]");
+      for (EndpointSnapshot endpoint : endpoints) {
+         builder.append(System.lineSeparator()).append("  ").append(endpoint);
+      }
+      return builder.toString();
+   }
+}
@@ -8,6 +8,9 @@ public class GitlabNote {
 
     public static final String URL = "/notes";
 
+    public static final String ORDER_BY_CREATED_AT = "created_at";
+    public static final String ORDER_BY_UPDATED_AT = "updated_at";
+
     private Integer id;
     private String body;
     private String attachment;
@@ -19,6 +22,9 @@ public class GitlabNote {
     @JsonProperty("created_at")
     private Date createdAt;
 
+    @JsonProperty("updated_at")
+    private Date updatedAt;
+
     public Integer getId() {
         return id;
     }
@@ -51,6 +57,14 @@ public class GitlabNote {
         this.createdAt = createdAt;
     }
 
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public String getAttachment() {
         return attachment;
     }
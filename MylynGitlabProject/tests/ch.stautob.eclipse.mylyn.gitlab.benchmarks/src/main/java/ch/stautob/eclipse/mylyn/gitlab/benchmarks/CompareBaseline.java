@@ -0,0 +1,97 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+
+/**
+ * Compares the JSON results of a JMH run with the committed baseline. A
+ * benchmark counts as changed if the difference of the scores exceeds their
+ * combined error, all benchmarks measure the average time, so lower is better.
+ * The bytes allocated per operation are compared the same way, if the run was
+ * profiled with -prof gc. Exits with 1 if any benchmark got slower or allocates
+ * more.
+ */
+public class CompareBaseline {
+
+   /**
+    * The bytes allocated per operation, reported by the gc profiler
+    */
+   private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+   public static void main(String[] args) throws IOException {
+      if (args.length != 2) {
+         System.err.println("Usage: CompareBaseline <baseline.json> <result.json>");
+         System.exit(2);
+      }
+      Map<String, JsonNode> baseline = read(new File(args[0]));
+      Map<String, JsonNode> result = read(new File(args[1]));
+
+      boolean regression = false;
+      for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+         JsonNode current = entry.getValue();
+         JsonNode before = baseline.get(entry.getKey());
+         regression |= compare(entry.getKey(), current.path("primaryMetric"), before != null ? before.path("primaryMetric") : null, "SLOWER",
+               "faster");
+         JsonNode allocation = current.path("secondaryMetrics").path(ALLOCATION);
+         if (!allocation.isMissingNode()) {
+            JsonNode allocationBefore = before != null ? before.path("secondaryMetrics").path(ALLOCATION) : null;
+            regression |= compare(entry.getKey() + " " + ALLOCATION, allocation, allocationBefore == null || allocationBefore.isMissingNode() ? null
+                  : allocationBefore, "MORE", "less");
+         }
+      }
+      System.exit(regression ? 1 : 0);
+   }
+
+   /**
+    * Prints the scores of a metric, before and now.
+    *
+    * @return Whether the metric got worse
+    */
+   private static boolean compare(String key, JsonNode current, JsonNode before, String worse, String better) {
+      if (before == null) {
+         System.out.printf("%-90s %12.3f %s  (not in baseline)%n", key, current.path("score").asDouble(), current.path("scoreUnit").asText());
+         return false;
+      }
+
+      double score = current.path("score").asDouble();
+      double base = before.path("score").asDouble();
+      double error = error(current) + error(before);
+      String verdict = "";
+      if (score - base > error) {
+         verdict = worse;
+      } else if (base - score > error) {
+         verdict = better;
+      }
+      System.out.printf("%-90s %12.3f -> %12.3f %s %+7.1f%% %s%n", key, base, score, current.path("scoreUnit").asText(), (score - base) * 100 /
+            base, verdict);
+      return verdict.equals(worse);
+   }
+
+   private static double error(JsonNode metric) {
+      double error = metric.path("scoreError").asDouble();
+      return Double.isNaN(error) ? 0 : error;
+   }
+
+   /**
+    * @return The runs by benchmark and parameters
+    */
+   private static Map<String, JsonNode> read(File file) throws IOException {
+      Map<String, JsonNode> runs = new LinkedHashMap<>();
+      for (JsonNode run : new ObjectMapper().readTree(file)) {
+         StringBuilder key = new StringBuilder(run.path("benchmark").asText().replaceFirst(".*\\.benchmarks\\.", ""));
+         for (Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields(); params.hasNext();) {
+            Map.Entry<String, JsonNode> param = params.next();
+            key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+         }
+         runs.put(key.toString(), run);
+      }
+      return runs;
+   }
+}
@@ -0,0 +1,80 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabNote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+
+/**
+ * Binding of a page of 100 issues and the 50 notes of an issue to the models,
+ * by reflection or with Afterburner, through {@link ObjectMapper#readValue}
+ * as well as through a cached {@link ObjectReader} as
+ * {@link org.gitlab.api.http.GitlabHTTPRequestor} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+   @Param({ "reflection", "afterburner" })
+   public String binding;
+
+   private byte[]       issues;
+   private byte[]       notes;
+   private ObjectMapper mapper;
+   private ObjectReader issuesReader;
+   private ObjectReader notesReader;
+
+   @Setup
+   public void setup() throws IOException {
+      issues = RecordedTransport.load("issues.json");
+      notes = RecordedTransport.load("notes.json");
+      mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+      if ("afterburner".equals(binding)) {
+         mapper.registerModule(new AfterburnerModule());
+      }
+      issuesReader = mapper.readerFor(GitlabIssue[].class);
+      notesReader = mapper.readerFor(GitlabNote[].class);
+   }
+
+   @Benchmark
+   public GitlabIssue[] issuesMapper() throws IOException {
+      return mapper.readValue(issues, GitlabIssue[].class);
+   }
+
+   @Benchmark
+   public GitlabIssue[] issuesReader() throws IOException {
+      return issuesReader.readValue(issues);
+   }
+
+   @Benchmark
+   public GitlabNote[] notesMapper() throws IOException {
+      return mapper.readValue(notes, GitlabNote[].class);
+   }
+
+   @Benchmark
+   public GitlabNote[] notesReader() throws IOException {
+      return notesReader.readValue(notes);
+   }
+}
@@ -0,0 +1,104 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabMilestone;
+import org.gitlab.api.models.GitlabUser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueSearch;
+
+
+/**
+ * Filtering the issues of a project with the query of a task list, once with
+ * assignee and label patterns and once with the default query matching all
+ * open issues
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssueSearchBenchmark {
+
+   private static final String[] LABELS = { "bug", "feature", "story", "priority:high", "priority:low", "backend", "frontend", "needs-review",
+         "docs", "security" };
+
+   @Param({ "10000", "100000" })
+   public int issueCount;
+
+   private List<GitlabIssue> issues;
+   private GitlabIssueSearch filtered;
+   private GitlabIssueSearch open;
+
+   @Setup
+   public void setup() {
+      Random random = new Random(42);
+      List<GitlabUser> users = new ArrayList<>();
+      for (String name : new String[] { "Alice Smith", "Bob Jones", "Carol White", "Dan Brown", "Eve Black" }) {
+         GitlabUser user = new GitlabUser();
+         user.setName(name);
+         user.setUsername(name.toLowerCase().replace(' ', '.'));
+         users.add(user);
+      }
+      List<GitlabMilestone> milestones = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+         GitlabMilestone milestone = new GitlabMilestone();
+         milestone.setTitle("v1." + i);
+         milestones.add(milestone);
+      }
+
+      issues = new ArrayList<>(issueCount);
+      for (int i = 0; i < issueCount; i++) {
+         GitlabIssue issue = new GitlabIssue();
+         issue.setIid(i + 1);
+         issue.setState(random.nextInt(3) == 0 ? GitlabIssue.STATE_CLOSED : GitlabIssue.STATE_OPENED);
+         issue.setAssignee(random.nextInt(6) == 0 ? null : users.get(random.nextInt(users.size())));
+         issue.setMilestone(random.nextInt(3) == 0 ? null : milestones.get(random.nextInt(milestones.size())));
+         List<String> labels = new ArrayList<>();
+         Collections.addAll(labels, LABELS);
+         Collections.shuffle(labels, random);
+         issue.setLabels(labels.subList(0, random.nextInt(4)).toArray(new String[0]));
+         issues.add(issue);
+      }
+
+      filtered = new GitlabIssueSearch("alice.smith", "", true, false, "bug, priority:.*");
+      open = new GitlabIssueSearch("", "", true, false, "");
+   }
+
+   @Benchmark
+   public int filtered() {
+      return count(filtered);
+   }
+
+   @Benchmark
+   public int open() {
+      return count(open);
+   }
+
+   private int count(GitlabIssueSearch search) {
+      int matches = 0;
+      for (GitlabIssue issue : issues) {
+         if (search.doesMatch(issue)) {
+            matches++;
+         }
+      }
+      return matches;
+   }
+}
@@ -0,0 +1,68 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabNote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Decoding of recorded responses by {@link org.gitlab.api.http.GitlabHTTPRequestor},
+ * a page of 100 issues and the 50 notes of an issue, with the default settings
+ * of the api and with the response cache and coalescing disabled. The
+ * responses carry an ETag, so with the default settings they are stored in the
+ * response cache as they are decoded. Run with -prof gc, gc.alloc.rate.norm is
+ * the number of bytes allocated per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+   private static final String ISSUES = "/projects/278964/issues";
+   private static final String NOTES  = "/projects/278964/issues/999/notes";
+
+   @Param({ "identity", "gzip" })
+   public String encoding;
+
+   @Param({ "default", "uncached" })
+   public String settings;
+
+   private GitlabAPI api;
+
+   @Setup
+   public void setup() throws IOException {
+      RecordedTransport transport = new RecordedTransport("gzip".equals(encoding)).record(ISSUES, "issues.json").record(NOTES,
+            "notes.json");
+      api = GitlabAPI.connect("https://gitlab.example.com", "token").transport(transport).metrics(null);
+      if ("uncached".equals(settings)) {
+         api.responseCache(null).singleFlight(null);
+      }
+   }
+
+   @Benchmark
+   public GitlabIssue[] issues() throws IOException {
+      return api.retrieve().to(ISSUES, GitlabIssue[].class);
+   }
+
+   @Benchmark
+   public GitlabNote[] notes() throws IOException {
+      return api.retrieve().to(NOTES, GitlabNote[].class);
+   }
+}
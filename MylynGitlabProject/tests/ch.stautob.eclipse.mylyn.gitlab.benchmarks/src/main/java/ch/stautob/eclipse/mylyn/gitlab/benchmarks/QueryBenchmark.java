@@ -0,0 +1,71 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+import org.gitlab.api.Endpoints;
+import org.gitlab.api.Pagination;
+import org.gitlab.api.http.Query;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabNote;
+import org.gitlab.api.models.GitlabProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Building and formatting the query of an issue listing, and building the url
+ * of the notes of an issue from its endpoint or by concatenation, as done for
+ * every request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+   private Query query;
+
+   @Setup
+   public void setup() throws UnsupportedEncodingException {
+      query = query();
+   }
+
+   @Benchmark
+   public String format() {
+      return query.toString();
+   }
+
+   @Benchmark
+   public String buildAndFormat() throws UnsupportedEncodingException {
+      return query().toString();
+   }
+
+   @Benchmark
+   public String endpoint() {
+      return Endpoints.ISSUE_NOTES.url(278964, 999).query(Pagination.PARAM_PER_PAGE, Pagination.MAX_ITEMS_PER_PAGE).toString();
+   }
+
+   @Benchmark
+   public String concatenated() throws UnsupportedEncodingException {
+      return GitlabProject.URL + "/" + URLEncoder.encode(String.valueOf(278964), "UTF-8") + GitlabIssue.URL + "/" + 999 + GitlabNote.URL +
+             new Pagination().withPerPage(Pagination.MAX_ITEMS_PER_PAGE);
+   }
+
+   private static Query query() throws UnsupportedEncodingException {
+      return new Query().append("state", "opened").append("labels", "bug,priority:high").appendIf("milestone", "v1.2").appendIf(
+            "assignee_id", 11).append("order_by", "updated_at").append("sort", "desc").appendIf("search", "token expires").appendIf(
+                  "per_page", 100).appendIf("page", 3);
+   }
+}
@@ -0,0 +1,115 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.gitlab.api.http.HttpTransport;
+import org.gitlab.api.http.TransportRequest;
+import org.gitlab.api.http.TransportResponse;
+
+
+/**
+ * Answers requests with payloads recorded from a GitLab server, so the
+ * benchmarks measure the client and not the network. Like GitLab, it sends an
+ * ETag with every payload. If-None-Match is ignored, payloads are always sent
+ * in full, as for pages that changed since they were last requested, so the
+ * response cache stores every response.
+ */
+class RecordedTransport implements HttpTransport {
+
+   private final Map<String, byte[]> payloads = new HashMap<>();
+   private final Map<String, String> etags    = new HashMap<>();
+   private final boolean             gzip;
+
+   RecordedTransport(boolean gzip) {
+      this.gzip = gzip;
+   }
+
+   /**
+    * @param path
+    *        The path below the api namespace, e.g. "/projects/1/issues"
+    * @param payload
+    *        The name of the payload in the resources
+    */
+   RecordedTransport record(String path, String payload) throws IOException {
+      byte[] body = load(payload);
+      if (gzip) {
+         ByteArrayOutputStream out = new ByteArrayOutputStream();
+         try (GZIPOutputStream zip = new GZIPOutputStream(out)) {
+            zip.write(body);
+         }
+         body = out.toByteArray();
+      }
+      payloads.put("/api/v4" + path, body);
+      etags.put("/api/v4" + path, "W/\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"");
+      return this;
+   }
+
+   static byte[] load(String payload) throws IOException {
+      try (InputStream in = RecordedTransport.class.getResourceAsStream("/payloads/" + payload)) {
+         if (in == null) { throw new FileNotFoundException(payload); }
+         return IOUtils.toByteArray(in);
+      }
+   }
+
+   @Override
+   public TransportResponse execute(TransportRequest request) throws IOException {
+      byte[] body = payloads.get(request.getUrl().getPath());
+      if (body == null) { throw new FileNotFoundException(request.getUrl().toString()); }
+      return new RecordedResponse(request.getUrl(), body, etags.get(request.getUrl().getPath()), gzip);
+   }
+
+   @Override
+   public void close() {}
+
+   private static class RecordedResponse implements TransportResponse {
+
+      private final URL     url;
+      private final byte[]  body;
+      private final String  etag;
+      private final boolean gzip;
+
+      RecordedResponse(URL url, byte[] body, String etag, boolean gzip) {
+         this.url = url;
+         this.body = body;
+         this.etag = etag;
+         this.gzip = gzip;
+      }
+
+      @Override
+      public URL getUrl() {
+         return url;
+      }
+
+      @Override
+      public int getStatusCode() {
+         return 200;
+      }
+
+      @Override
+      public String getHeader(String name) {
+         if (name.equalsIgnoreCase("Content-Type")) { return "application/json"; }
+         if (name.equalsIgnoreCase("Content-Length")) { return String.valueOf(body.length); }
+         if (name.equalsIgnoreCase("Content-Encoding")) { return gzip ? "gzip" : null; }
+         if (name.equalsIgnoreCase("ETag")) { return etag; }
+         return null;
+      }
+
+      @Override
+      public InputStream getBody() {
+         return new ByteArrayInputStream(body);
+      }
+
+      @Override
+      public void close() {}
+   }
+}
@@ -0,0 +1,239 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.gitlab.api.FanOut;
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.IssueFilter;
+import org.gitlab.api.graphql.IssueWithNotes;
+import org.gitlab.api.metrics.EndpointSnapshot;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabNote;
+import org.gitlab.api.models.GitlabProject;
+
+import ch.stautob.eclipse.mylyn.gitlab.benchmarks.stub.StubGitlabServer;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueFetcher;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueSearch;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.IssueWatermark;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.NoteCache;
+
+
+/**
+ * Synchronizes a large project the way the connector does and reports wall
+ * time, requests and peak heap per phase. Connecting mirrors the validation of
+ * a repository, updating the refresh of milestones and members, querying the
+ * query of all issues, which only lists them. Downloading fetches the issues
+ * with their notes, as happens for new tasks, refreshing downloads them again,
+ * requesting only the notes updated since, as happens for changed tasks. Requerying is the incremental
+ * synchronization that follows and narrow a query for the open issues with two
+ * labels, filtered by the server. Unless a server is given, a
+ * {@link StubGitlabServer} is started in the same JVM, its generated issues
+ * then count towards the heap.
+ * <p>
+ * Usage: SyncLoadTest [--url=http://host --token=token --project=group/project]
+ * [--issues=50000] [--notes=500000] [--latency=ms] [--jitter=ms] [--errors=0.01]
+ * [--concurrency=4]
+ */
+public class SyncLoadTest {
+
+   private static final long HEAP_SAMPLE_MILLIS = 5;
+
+   public static void main(String[] args) throws Exception {
+      Map<String, String> options = StubGitlabServer.options(args);
+      StubGitlabServer server = null;
+      String url = options.get("url");
+      String token = options.get("token");
+      String projectPath = options.get("project");
+      if (url == null) {
+         server = StubGitlabServer.configure(new StubGitlabServer(), options).start();
+         url = server.getUrl();
+         token = server.getToken();
+         projectPath = server.getProjectPath();
+         System.out.println("Stub server at " + url + " with " + options.getOrDefault("issues", String.valueOf(StubGitlabServer.DEFAULT_ISSUES)) +
+                            " issues and " + options.getOrDefault("notes", String.valueOf(StubGitlabServer.DEFAULT_NOTES)) + " notes");
+      }
+
+      try (HeapSampler heap = new HeapSampler()) {
+         GitlabAPI api = GitlabAPI.connect(url, token);
+         if (options.containsKey("concurrency")) {
+            int concurrency = Integer.parseInt(options.get("concurrency"));
+            api.setMaxConnectionsPerHost(concurrency).setDetailConcurrency(concurrency);
+         }
+         GitlabProject[] project = new GitlabProject[1];
+         String path = projectPath;
+
+         phase("connect", api, server, heap, () -> {
+            api.getCurrentSession();
+            for (GitlabProject p : api.getProjects()) {
+               if (p.getPathWithNamespace().equals(path)) {
+                  project[0] = p;
+               }
+            }
+            if (project[0] == null) { throw new IOException("Unknown project " + path); }
+            return "found " + path;
+         });
+         phase("update", api, server, heap, () -> {
+            int milestones = api.getMilestones(project[0]).size();
+            int members = api.getProjectMembers(project[0]).size();
+            if (project[0].getNamespace() != null) {
+               members += api.getNamespaceMembers(project[0].getNamespace()).size();
+            }
+            return milestones + " milestones, " + members + " members";
+         });
+         GitlabIssueSearch search = new GitlabIssueSearch("", "", true, true, "");
+         GitlabIssueFetcher fetcher = new GitlabIssueFetcher(api, project[0]);
+         IssueWatermark[] watermark = new IssueWatermark[1];
+         NoteCache cache = new NoteCache(Integer.MAX_VALUE);
+         List<GitlabIssue> queried = new ArrayList<>();
+         phase("query", api, server, heap, () -> {
+            queried.addAll(fetcher.fetchIssues(search.toFilter(null)));
+            watermark[0] = IssueWatermark.full(queried, search.getKey(), System.currentTimeMillis());
+            return queried.size() + " issues";
+         });
+         phase("download", api, server, heap, () -> download(api, fetcher, queried, cache));
+         phase("refresh", api, server, heap, () -> download(api, fetcher, queried, cache));
+         phase("requery", api, server, heap, () -> {
+            if (watermark[0] == null) { return "no watermark"; }
+            List<GitlabIssue> issues = fetcher.fetchIssues(new IssueFilter().withUpdatedAfter(watermark[0].getUpdatedAfter()));
+            return issues.size() + " issues updated after " + GitlabAPI.iso8601(watermark[0].getUpdatedAfter());
+         });
+         phase("narrow", api, server, heap, () -> {
+            GitlabIssueSearch narrow = new GitlabIssueSearch("", "", true, false, "^bug$, ^backend$");
+            List<GitlabIssue> issues = fetcher.fetchIssues(narrow.toFilter(null));
+            return issues.stream().filter(narrow::doesMatch).count() + " issues with " + narrow.toFilter(null);
+         });
+
+         System.out.println();
+         for (EndpointSnapshot endpoint : api.getMetrics().getSnapshot().getEndpoints()) {
+            System.out.println(endpoint);
+         }
+      } finally {
+         if (server != null) {
+            server.close();
+         }
+      }
+   }
+
+   /**
+    * Downloads the issues with their notes, as
+    * {@link ch.stautob.eclipse.mylyn.gitlab.core.tasks.GitlabTaskDataHandler} does:
+    * the uncached ones over GraphQL if the server has it, the others one by one
+    */
+   private static String download(GitlabAPI api, GitlabIssueFetcher fetcher, List<GitlabIssue> issues, NoteCache cache) throws IOException {
+      AtomicLong notes = new AtomicLong();
+      AtomicLong failed = new AtomicLong();
+      List<GitlabIssue> remaining = new ArrayList<>(issues);
+      List<Integer> uncached = new ArrayList<>();
+      for (GitlabIssue issue : issues) {
+         if (!cache.contains(issue.getProjectId(), issue.getIid())) {
+            uncached.add(issue.getIid());
+         }
+      }
+      List<IssueWithNotes> batched = uncached.isEmpty() ? null : fetcher.fetchWithNotes(uncached);
+      if (batched != null) {
+         Set<Integer> fetched = new HashSet<>();
+         for (IssueWithNotes issue : batched) {
+            notes.addAndGet(cache.put(issue.getIssue(), issue.getNotes()).size());
+            fetched.add(issue.getIssue().getIid());
+         }
+         remaining.removeIf(issue -> fetched.contains(issue.getIid()));
+      }
+      api.<GitlabIssue, List<GitlabNote>> fanOut().run(remaining, issue -> cache.getNotes(api, api.getIssue(issue.getProjectId(), issue.getIid())),
+            new FanOut.Listener<GitlabIssue, List<GitlabNote>>() {
+
+               @Override
+               public void completed(GitlabIssue issue, List<GitlabNote> result) {
+                  notes.addAndGet(result.size());
+               }
+
+               @Override
+               public void failed(GitlabIssue issue, Exception e) {
+                  failed.incrementAndGet();
+               }
+            });
+      return issues.size() + " issues, " + notes + " notes" + (failed.get() > 0 ? ", " + failed + " failed" : "");
+   }
+
+   private static void phase(String name, GitlabAPI api, StubGitlabServer server, HeapSampler heap, Phase phase) throws Exception {
+      long requests = api.getMetrics().getRequests();
+      long served = server != null ? server.getRequests() : 0;
+      long bytesOut = server != null ? server.getBytesOut() : 0;
+      heap.reset();
+      long start = System.nanoTime();
+      String result = phase.run();
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      StringBuilder line = new StringBuilder(String.format("%-8s %8d ms %7d requests", name, millis, api.getMetrics().getRequests() - requests));
+      if (server != null) {
+         line.append(String.format(" (%d served, %d KB)", server.getRequests() - served, (server.getBytesOut() - bytesOut) / 1024));
+      }
+      line.append(String.format(" peak heap %5d MB  %s", heap.getPeak() / (1024 * 1024), result));
+      System.out.println(line);
+   }
+
+   private interface Phase {
+
+      String run() throws Exception;
+   }
+
+   /**
+    * Samples the used heap in the background and keeps its maximum
+    */
+   private static class HeapSampler implements AutoCloseable {
+
+      private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+      private final AtomicLong   peak   = new AtomicLong();
+      private final Thread       thread;
+
+      private volatile boolean running = true;
+
+      HeapSampler() {
+         thread = new Thread(() -> {
+            while (running) {
+               sample();
+               try {
+                  Thread.sleep(HEAP_SAMPLE_MILLIS);
+               } catch (InterruptedException e) {
+                  return;
+               }
+            }
+         }, "heap-sampler");
+         thread.setDaemon(true);
+         thread.start();
+      }
+
+      private void sample() {
+         long used = memory.getHeapMemoryUsage().getUsed();
+         peak.accumulateAndGet(used, Math::max);
+      }
+
+      /**
+       * Collects garbage and restarts sampling from the heap that is still in use
+       */
+      void reset() {
+         System.gc();
+         peak.set(0);
+         sample();
+      }
+
+      long getPeak() {
+         sample();
+         return peak.get();
+      }
+
+      @Override
+      public void close() {
+         running = false;
+         thread.interrupt();
+      }
+   }
+}
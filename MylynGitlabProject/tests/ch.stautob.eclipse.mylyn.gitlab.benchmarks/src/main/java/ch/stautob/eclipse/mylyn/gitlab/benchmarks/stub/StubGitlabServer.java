@@ -0,0 +1,559 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks.stub;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ch.stautob.eclipse.mylyn.gitlab.benchmarks.stub.SyntheticProject.Issue;
+
+
+/**
+ * A stand-in for a GitLab server, serving one generated project of
+ * configurable size over the v4 REST api: the current user, projects, issues,
+ * notes, members, milestones and labels, paged like GitLab with the X-Total,
+ * X-Next-Page and Link headers. Requests can be delayed and failed with 503 at
+ * random. GraphQL is not served, so clients fall back to REST.
+ * <p>
+ * Run {@link #main(String[])} to use it from outside, e.g. with Eclipse.
+ */
+public class StubGitlabServer implements Closeable {
+
+   public static final String DEFAULT_TOKEN = "stub-token";
+
+   public static final int DEFAULT_ISSUES     = 50000;
+   public static final int DEFAULT_NOTES      = 500000;
+   public static final int DEFAULT_MEMBERS    = 50;
+   public static final int DEFAULT_MILESTONES = 20;
+
+   private static final int    DEFAULT_PER_PAGE = 20;
+   private static final int    MAX_PER_PAGE     = 100;
+   private static final String API              = "/api/v4";
+
+   private static final Pattern PROJECT = Pattern.compile("/projects/([^/]+)(/.*)?");
+   private static final Pattern ISSUE   = Pattern.compile("/issues/(\\d+)(/notes)?");
+   private static final Pattern MEMBERS = Pattern.compile("/groups/(\\d+)/members");
+
+   private static final JsonFactory JSON = new JsonFactory();
+
+   private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = ThreadLocal.withInitial(() -> {
+      SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+      format.setTimeZone(TimeZone.getTimeZone("UTC"));
+      return format;
+   });
+
+   private int    port;
+   private int    issues     = DEFAULT_ISSUES;
+   private int    notes      = DEFAULT_NOTES;
+   private int    members    = DEFAULT_MEMBERS;
+   private int    milestones = DEFAULT_MILESTONES;
+   private long   seed       = 42;
+   private String token      = DEFAULT_TOKEN;
+   private long   latency;
+   private long   jitter;
+   private double errorRate;
+   private int    threads    = 8;
+
+   private final AtomicLong requests = new AtomicLong();
+   private final AtomicLong errors   = new AtomicLong();
+   private final AtomicLong bytesOut = new AtomicLong();
+
+   private SyntheticProject project;
+   private HttpServer       server;
+   private ExecutorService  executor;
+
+   /**
+    * @param port
+    *        The port to listen on, 0 for any free one
+    */
+   public StubGitlabServer port(int port) {
+      this.port = port;
+      return this;
+   }
+
+   public StubGitlabServer issues(int issues) {
+      this.issues = issues;
+      return this;
+   }
+
+   /**
+    * @param notes
+    *        The number of notes over all issues
+    */
+   public StubGitlabServer notes(int notes) {
+      this.notes = notes;
+      return this;
+   }
+
+   public StubGitlabServer members(int members) {
+      this.members = members;
+      return this;
+   }
+
+   public StubGitlabServer milestones(int milestones) {
+      this.milestones = milestones;
+      return this;
+   }
+
+   public StubGitlabServer seed(long seed) {
+      this.seed = seed;
+      return this;
+   }
+
+   /**
+    * @param token
+    *        The private token requests have to carry, or null to accept any request
+    */
+   public StubGitlabServer token(String token) {
+      this.token = token;
+      return this;
+   }
+
+   /**
+    * Delays every response.
+    *
+    * @param latency
+    *        The delay in milliseconds
+    * @param jitter
+    *        Up to this many milliseconds are added at random
+    */
+   public StubGitlabServer latency(long latency, long jitter) {
+      this.latency = latency;
+      this.jitter = jitter;
+      return this;
+   }
+
+   /**
+    * @param errorRate
+    *        The share of requests answered with 503 Service Unavailable, between 0 and 1
+    */
+   public StubGitlabServer errorRate(double errorRate) {
+      this.errorRate = errorRate;
+      return this;
+   }
+
+   /**
+    * @param threads
+    *        The number of requests served concurrently
+    */
+   public StubGitlabServer threads(int threads) {
+      this.threads = threads;
+      return this;
+   }
+
+   /**
+    * Generates the project and starts serving it.
+    */
+   public StubGitlabServer start() throws IOException {
+      // Headers and body are written separately, with Nagle's algorithm every response would wait for a delayed ack
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+      project = new SyntheticProject(issues, notes, members, milestones, seed);
+      server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 100);
+      executor = Executors.newFixedThreadPool(threads, r -> {
+         Thread thread = new Thread(r, "stub-gitlab");
+         thread.setDaemon(true);
+         return thread;
+      });
+      server.setExecutor(executor);
+      server.createContext("/", this::handle);
+      server.start();
+      return this;
+   }
+
+   @Override
+   public void close() {
+      if (server != null) {
+         server.stop(0);
+         executor.shutdownNow();
+         server = null;
+      }
+   }
+
+   /**
+    * @return The url to connect to, e.g. "http://127.0.0.1:38211"
+    */
+   public String getUrl() {
+      return "http://127.0.0.1:" + server.getAddress().getPort();
+   }
+
+   public String getToken() {
+      return token;
+   }
+
+   public String getProjectPath() {
+      return SyntheticProject.NAMESPACE + "/" + SyntheticProject.PATH;
+   }
+
+   /**
+    * @return The number of requests served, including failed ones
+    */
+   public long getRequests() {
+      return requests.get();
+   }
+
+   /**
+    * @return The number of requests failed on purpose
+    */
+   public long getErrors() {
+      return errors.get();
+   }
+
+   public long getBytesOut() {
+      return bytesOut.get();
+   }
+
+   public void resetCounters() {
+      requests.set(0);
+      errors.set(0);
+      bytesOut.set(0);
+   }
+
+   private void handle(HttpExchange exchange) throws IOException {
+      try {
+         requests.incrementAndGet();
+         delay();
+
+         String path = exchange.getRequestURI().getRawPath();
+         Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+         if (!authorized(exchange, query)) {
+            message(exchange, 401, "message", "401 Unauthorized");
+         } else if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            errors.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "0");
+            message(exchange, 503, "message", "503 Service Unavailable");
+         } else if (!path.startsWith(API + "/")) {
+            message(exchange, 404, "error", "404 Not Found");
+         } else if (!"GET".equals(exchange.getRequestMethod())) {
+            message(exchange, 405, "error", "405 Method Not Allowed");
+         } else {
+            route(exchange, path.substring(API.length()), query);
+         }
+      } catch (RuntimeException e) {
+         message(exchange, 500, "message", "500 Internal Server Error: " + e);
+      } finally {
+         exchange.close();
+      }
+   }
+
+   private void route(HttpExchange exchange, String path, Map<String, String> query) throws IOException {
+      if (path.equals("/user")) {
+         write(exchange, 200, json -> {
+            json.writeStartObject();
+            json.writeNumberField("id", 1);
+            json.writeStringField("username", "user1");
+            json.writeStringField("name", "User 1");
+            json.writeStringField("email", "user1@example.com");
+            json.writeStringField("state", "active");
+            json.writeStringField("private_token", token);
+            json.writeBooleanField("is_admin", false);
+            json.writeEndObject();
+         });
+         return;
+      }
+      if (path.equals("/projects")) {
+         page(exchange, query, 1, (json, i) -> project.writeProject(json));
+         return;
+      }
+      Matcher members = MEMBERS.matcher(path);
+      if (members.matches() && Integer.parseInt(members.group(1)) == SyntheticProject.NAMESPACE_ID) {
+         page(exchange, query, project.memberCount, project::writeMember);
+         return;
+      }
+
+      Matcher matcher = PROJECT.matcher(path);
+      if (!matcher.matches() || !isProject(decode(matcher.group(1)))) {
+         message(exchange, 404, "message", "404 Project Not Found");
+         return;
+      }
+      String resource = matcher.group(2) == null ? "" : matcher.group(2);
+      if (resource.isEmpty()) {
+         write(exchange, 200, project::writeProject);
+      } else if (resource.equals("/issues")) {
+         List<Issue> found = issues(query);
+         page(exchange, query, found.size(), (json, i) -> found.get(i).write(json));
+      } else if (resource.equals("/members")) {
+         page(exchange, query, 1, project::writeMember);
+      } else if (resource.equals("/milestones")) {
+         page(exchange, query, project.milestoneCount, project::writeMilestone);
+      } else if (resource.equals("/labels")) {
+         page(exchange, query, SyntheticProject.LABELS.length, project::writeLabel);
+      } else {
+         Matcher issue = ISSUE.matcher(resource);
+         Issue found = issue.matches() ? project.issue(Integer.parseInt(issue.group(1))) : null;
+         if (found == null) {
+            message(exchange, 404, "message", "404 Not found");
+         } else if (issue.group(2) == null) {
+            write(exchange, 200, found::write);
+         } else {
+            int count = project.notesOf(found.iid);
+            boolean ascending = "asc".equals(query.get("sort"));
+            page(exchange, query, count, (json, i) -> found.writeNote(json, ascending ? i : count - 1 - i));
+         }
+      }
+   }
+
+   private boolean isProject(String id) {
+      return id.equals(String.valueOf(SyntheticProject.PROJECT_ID)) || id.equals(getProjectPath());
+   }
+
+   /**
+    * Filters and sorts the issues by the parameters GitLab supports for the issues of a project
+    */
+   private List<Issue> issues(Map<String, String> query) {
+      String state = query.get("state");
+      String milestone = query.get("milestone");
+      String assignee = query.get("assignee_username");
+      String search = query.get("search");
+      String[] labels = query.containsKey("labels") ? query.get("labels").split(",") : new String[0];
+      long updatedAfter = date(query.get("updated_after"), Long.MIN_VALUE);
+      long updatedBefore = date(query.get("updated_before"), Long.MAX_VALUE);
+      long createdAfter = date(query.get("created_after"), Long.MIN_VALUE);
+
+      List<Issue> found = new ArrayList<>();
+      for (Issue issue : project.issues) {
+         if ("opened".equals(state) && issue.closed || "closed".equals(state) && !issue.closed) continue;
+         if (issue.updatedAt < updatedAfter || issue.updatedAt > updatedBefore || issue.createdAt < createdAfter) continue;
+         if (milestone != null && (issue.milestone < 0 || !milestone.equals(project.milestoneTitle(issue.milestone)))) continue;
+         if (assignee != null && (issue.assignee < 0 || !assignee.equals("user" + (issue.assignee + 1)))) continue;
+         if (search != null && !issue.title.contains(search)) continue;
+         boolean hasLabels = true;
+         for (String label : labels) {
+            hasLabels &= label.isEmpty() || issue.hasLabel(label);
+         }
+         if (hasLabels) {
+            found.add(issue);
+         }
+      }
+
+      Comparator<Issue> order = "updated_at".equals(query.get("order_by")) ? Comparator.comparingLong(i -> i.updatedAt)
+            : Comparator.comparingLong(i -> i.createdAt);
+      found.sort("asc".equals(query.get("sort")) ? order : order.reversed());
+      return found;
+   }
+
+   private boolean authorized(HttpExchange exchange, Map<String, String> query) {
+      if (token == null) { return true; }
+      String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+      return token.equals(exchange.getRequestHeaders().getFirst("PRIVATE-TOKEN")) || token.equals(query.get("private_token")) ||
+             token.equals(query.get("access_token")) || ("Bearer " + token).equals(authorization);
+   }
+
+   private void delay() {
+      long delay = latency + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+      if (delay > 0) {
+         try {
+            Thread.sleep(delay);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
+
+   /**
+    * Writes one page of a collection with GitLab's pagination headers.
+    *
+    * @param total
+    *        The size of the collection
+    * @param element
+    *        Writes the element at the given index
+    */
+   private void page(HttpExchange exchange, Map<String, String> query, int total, Element element) throws IOException {
+      int perPage = Math.min(MAX_PER_PAGE, Math.max(1, intParam(query, "per_page", DEFAULT_PER_PAGE)));
+      int page = Math.max(1, intParam(query, "page", 1));
+      int totalPages = Math.max(1, (total + perPage - 1) / perPage);
+
+      Headers headers = exchange.getResponseHeaders();
+      headers.set("X-Page", String.valueOf(page));
+      headers.set("X-Per-Page", String.valueOf(perPage));
+      headers.set("X-Total", String.valueOf(total));
+      headers.set("X-Total-Pages", String.valueOf(totalPages));
+      headers.set("X-Next-Page", page < totalPages ? String.valueOf(page + 1) : "");
+      headers.set("X-Prev-Page", page > 1 ? String.valueOf(page - 1) : "");
+      StringBuilder link = new StringBuilder();
+      if (page < totalPages) {
+         link.append(link(exchange, query, page + 1, "next")).append(", ");
+      }
+      if (page > 1) {
+         link.append(link(exchange, query, page - 1, "prev")).append(", ");
+      }
+      link.append(link(exchange, query, 1, "first")).append(", ").append(link(exchange, query, totalPages, "last"));
+      headers.set("Link", link.toString());
+
+      int from = (page - 1) * perPage;
+      int to = Math.min(total, from + perPage);
+      write(exchange, 200, json -> {
+         json.writeStartArray();
+         for (int i = from; i < to; i++) {
+            element.write(json, i);
+         }
+         json.writeEndArray();
+      });
+   }
+
+   private String link(HttpExchange exchange, Map<String, String> query, int page, String rel) {
+      StringBuilder url = new StringBuilder("<").append(getUrl()).append(exchange.getRequestURI().getRawPath()).append("?");
+      Map<String, String> params = new LinkedHashMap<>(query);
+      params.remove("private_token");
+      params.remove("access_token");
+      params.put("page", String.valueOf(page));
+      for (Map.Entry<String, String> param : params.entrySet()) {
+         url.append(encode(param.getKey())).append('=').append(encode(param.getValue())).append('&');
+      }
+      url.setLength(url.length() - 1);
+      return url.append(">; rel=\"").append(rel).append('"').toString();
+   }
+
+   private void message(HttpExchange exchange, int status, String field, String message) throws IOException {
+      write(exchange, status, json -> {
+         json.writeStartObject();
+         json.writeStringField(field, message);
+         json.writeEndObject();
+      });
+   }
+
+   /**
+    * Writes a json body, gzipped if the client accepts it
+    */
+   private void write(HttpExchange exchange, int status, Body body) throws IOException {
+      String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+      boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+      try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : bytes; JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+         body.write(json);
+      }
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      if (gzip) {
+         exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+      }
+      exchange.sendResponseHeaders(status, bytes.size());
+      bytes.writeTo(exchange.getResponseBody());
+      bytesOut.addAndGet(bytes.size());
+   }
+
+   static String format(long millis) {
+      return DATE_FORMAT.get().format(millis);
+   }
+
+   private static long date(String value, long fallback) {
+      if (value == null) { return fallback; }
+      try {
+         return DATE_FORMAT.get().parse(value.length() == 20 ? value.replace("Z", ".000Z") : value).getTime();
+      } catch (ParseException e) {
+         throw new IllegalArgumentException("Invalid date " + value, e);
+      }
+   }
+
+   private static int intParam(Map<String, String> query, String name, int fallback) {
+      try {
+         return query.containsKey(name) ? Integer.parseInt(query.get(name)) : fallback;
+      } catch (NumberFormatException e) {
+         return fallback;
+      }
+   }
+
+   private static Map<String, String> query(String query) {
+      Map<String, String> params = new LinkedHashMap<>();
+      if (query != null) {
+         for (String param : query.split("&")) {
+            int eq = param.indexOf('=');
+            if (eq > 0) {
+               params.put(decode(param.substring(0, eq)), decode(param.substring(eq + 1)));
+            } else if (!param.isEmpty()) {
+               params.put(decode(param), "");
+            }
+         }
+      }
+      return params;
+   }
+
+   private static String decode(String value) {
+      try {
+         return URLDecoder.decode(value, "UTF-8");
+      } catch (UnsupportedEncodingException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private static String encode(String value) {
+      try {
+         return URLEncoder.encode(value, "UTF-8");
+      } catch (UnsupportedEncodingException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private interface Body {
+
+      void write(JsonGenerator json) throws IOException;
+   }
+
+   private interface Element {
+
+      void write(JsonGenerator json, int index) throws IOException;
+   }
+
+   /**
+    * Serves a generated project until killed.
+    * <p>
+    * Usage: StubGitlabServer [--port=8080] [--issues=50000] [--notes=500000]
+    * [--latency=ms] [--jitter=ms] [--errors=0.01] [--token=stub-token]
+    */
+   public static void main(String[] args) throws IOException {
+      Map<String, String> options = options(args);
+      StubGitlabServer server = configure(new StubGitlabServer().port(Integer.parseInt(options.getOrDefault("port", "8080"))), options).start();
+      System.out.println("Serving " + server.getProjectPath() + " with " + server.issues + " issues and " + server.notes + " notes at " +
+                         server.getUrl() + ", token " + server.getToken());
+   }
+
+   /**
+    * Applies the --issues, --notes, --latency, --jitter, --errors, --token and --seed options
+    */
+   public static StubGitlabServer configure(StubGitlabServer server, Map<String, String> options) {
+      server.issues(Integer.parseInt(options.getOrDefault("issues", String.valueOf(DEFAULT_ISSUES))));
+      server.notes(Integer.parseInt(options.getOrDefault("notes", String.valueOf(DEFAULT_NOTES))));
+      server.latency(Long.parseLong(options.getOrDefault("latency", "0")), Long.parseLong(options.getOrDefault("jitter", "0")));
+      server.errorRate(Double.parseDouble(options.getOrDefault("errors", "0")));
+      server.seed(Long.parseLong(options.getOrDefault("seed", "42")));
+      server.token(options.getOrDefault("token", DEFAULT_TOKEN));
+      return server;
+   }
+
+   /**
+    * Parses options of the form --name=value
+    */
+   public static Map<String, String> options(String[] args) {
+      Map<String, String> options = new LinkedHashMap<>();
+      for (String arg : args) {
+         if (!arg.startsWith("--")) { throw new IllegalArgumentException("Unexpected argument " + arg); }
+         int eq = arg.indexOf('=');
+         options.put(arg.substring(2, eq > 0 ? eq : arg.length()), eq > 0 ? arg.substring(eq + 1) : "true");
+      }
+      return options;
+   }
+}
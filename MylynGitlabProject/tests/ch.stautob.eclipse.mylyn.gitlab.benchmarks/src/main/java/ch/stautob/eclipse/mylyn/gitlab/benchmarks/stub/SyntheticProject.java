@@ -0,0 +1,277 @@
+package ch.stautob.eclipse.mylyn.gitlab.benchmarks.stub;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+
+/**
+ * A project with generated issues, notes, members, milestones and labels.
+ * All data is derived from a seed, so every run sees the same project. Issues
+ * are held in a compact form to filter them quickly, notes are generated when
+ * requested. Every twentieth issue has ten times as many notes as the others,
+ * so paging of notes is exercised.
+ */
+class SyntheticProject {
+
+   static final int    PROJECT_ID   = 278964;
+   static final int    NAMESPACE_ID = 51;
+   static final String NAMESPACE    = "group";
+   static final String PATH         = "project";
+
+   static final String[] LABELS = { "bug", "feature", "story", "priority:high", "priority:normal", "priority:low", "backend", "frontend",
+         "needs-review", "docs", "security", "performance", "ux", "api", "build" };
+
+   private static final String[] WORDS = ("sync fails when the token expires issue list pagination breaks on large projects notes are missing "
+                                          + "after update label filter ignores case milestone view crashes with many assignees").split(" ");
+
+   /** 2016-01-01T00:00:00Z */
+   private static final long START    = 1451606400000L;
+   private static final long INTERVAL = TimeUnit.MINUTES.toMillis(30);
+
+   private static final int HEAVY_EVERY  = 20;
+   private static final int HEAVY_WEIGHT = 10;
+
+   final int     issueCount;
+   final int     noteCount;
+   final int     memberCount;
+   final int     milestoneCount;
+   final long    seed;
+   final Issue[] issues;
+
+   SyntheticProject(int issueCount, int noteCount, int memberCount, int milestoneCount, long seed) {
+      this.issueCount = issueCount;
+      this.noteCount = noteCount;
+      this.memberCount = memberCount;
+      this.milestoneCount = milestoneCount;
+      this.seed = seed;
+      this.issues = new Issue[issueCount];
+      for (int i = 0; i < issueCount; i++) {
+         issues[i] = new Issue(i + 1);
+      }
+   }
+
+   /**
+    * @return The issue with the given iid, or null
+    */
+   Issue issue(int iid) {
+      return iid >= 1 && iid <= issueCount ? issues[iid - 1] : null;
+   }
+
+   /**
+    * The notes are spread by weight, the weights of the issues up to iid summing to {@link #cumulativeWeight(int)}
+    */
+   int notesOf(int iid) {
+      long total = cumulativeWeight(issueCount);
+      return (int) (noteCount * cumulativeWeight(iid) / total - noteCount * cumulativeWeight(iid - 1) / total);
+   }
+
+   private static long cumulativeWeight(int iid) {
+      return iid + (long) (HEAVY_WEIGHT - 1) * (iid / HEAVY_EVERY);
+   }
+
+   String milestoneTitle(int index) {
+      return "v" + (1 + index / 10) + "." + index % 10;
+   }
+
+   void writeUser(JsonGenerator json, int index) throws IOException {
+      json.writeStartObject();
+      json.writeNumberField("id", index + 1);
+      json.writeStringField("name", "User " + (index + 1));
+      json.writeStringField("username", "user" + (index + 1));
+      json.writeStringField("state", "active");
+      json.writeStringField("avatar_url", "https://secure.gravatar.com/avatar/" + Integer.toHexString(index * 7919) + "?s=80&d=identicon");
+      json.writeStringField("web_url", "https://gitlab.example.com/user" + (index + 1));
+      json.writeEndObject();
+   }
+
+   void writeMember(JsonGenerator json, int index) throws IOException {
+      json.writeStartObject();
+      json.writeNumberField("id", index + 1);
+      json.writeStringField("name", "User " + (index + 1));
+      json.writeStringField("username", "user" + (index + 1));
+      json.writeStringField("state", "active");
+      json.writeNumberField("access_level", index == 0 ? 40 : 30);
+      json.writeEndObject();
+   }
+
+   void writeMilestone(JsonGenerator json, int index) throws IOException {
+      json.writeStartObject();
+      json.writeNumberField("id", 7000 + index);
+      json.writeNumberField("iid", index + 1);
+      json.writeNumberField("project_id", PROJECT_ID);
+      json.writeStringField("title", milestoneTitle(index));
+      json.writeStringField("description", "");
+      json.writeStringField("state", index < milestoneCount - 2 ? "closed" : "active");
+      json.writeStringField("created_at", StubGitlabServer.format(START + index * TimeUnit.DAYS.toMillis(30)));
+      json.writeStringField("updated_at", StubGitlabServer.format(START + index * TimeUnit.DAYS.toMillis(30)));
+      json.writeEndObject();
+   }
+
+   void writeLabel(JsonGenerator json, int index) throws IOException {
+      json.writeStartObject();
+      json.writeNumberField("id", 900 + index);
+      json.writeStringField("name", LABELS[index]);
+      json.writeStringField("color", String.format("#%06x", (index * 0x3c5a7f) & 0xffffff));
+      json.writeStringField("description", null);
+      json.writeNumberField("open_issues_count", 0);
+      json.writeEndObject();
+   }
+
+   void writeProject(JsonGenerator json) throws IOException {
+      json.writeStartObject();
+      json.writeNumberField("id", PROJECT_ID);
+      json.writeStringField("name", PATH);
+      json.writeStringField("path", PATH);
+      json.writeStringField("name_with_namespace", NAMESPACE + " / " + PATH);
+      json.writeStringField("path_with_namespace", NAMESPACE + "/" + PATH);
+      json.writeStringField("default_branch", "master");
+      json.writeStringField("visibility", "private");
+      json.writeStringField("web_url", "https://gitlab.example.com/" + NAMESPACE + "/" + PATH);
+      json.writeStringField("created_at", StubGitlabServer.format(START));
+      json.writeStringField("last_activity_at", StubGitlabServer.format(START + issueCount * INTERVAL));
+      json.writeBooleanField("issues_enabled", true);
+      json.writeNumberField("open_issues_count", issueCount);
+      json.writeObjectFieldStart("namespace");
+      json.writeNumberField("id", NAMESPACE_ID);
+      json.writeStringField("name", NAMESPACE);
+      json.writeStringField("path", NAMESPACE);
+      json.writeStringField("kind", "group");
+      json.writeStringField("full_path", NAMESPACE);
+      json.writeEndObject();
+      json.writeEndObject();
+   }
+
+   private static String text(Random random, int words) {
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < words; i++) {
+         if (i > 0) {
+            text.append(' ');
+         }
+         text.append(WORDS[random.nextInt(WORDS.length)]);
+      }
+      return text.toString();
+   }
+
+   /**
+    * An issue reduced to what the endpoints filter and sort by, the text is
+    * generated when the issue is written
+    */
+   class Issue {
+
+      final int      iid;
+      final boolean  closed;
+      final long     createdAt;
+      final long     updatedAt;
+      final String[] labels;
+      final int      milestone;
+      final int      assignee;
+      final int      author;
+      final String   title;
+
+      Issue(int iid) {
+         Random random = new Random(seed * 31 + iid);
+         this.iid = iid;
+         this.closed = random.nextInt(3) == 0;
+         this.createdAt = START + iid * INTERVAL;
+         this.updatedAt = createdAt + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(60));
+         String[] labels = new String[random.nextInt(4)];
+         for (int i = 0; i < labels.length; i++) {
+            labels[i] = LABELS[random.nextInt(LABELS.length)];
+         }
+         this.labels = labels;
+         this.milestone = random.nextInt(3) == 0 ? -1 : random.nextInt(milestoneCount);
+         this.assignee = random.nextInt(5) == 0 ? -1 : random.nextInt(memberCount);
+         this.author = random.nextInt(memberCount);
+         this.title = text(random, 4 + random.nextInt(6));
+      }
+
+      boolean hasLabel(String label) {
+         for (String l : labels) {
+            if (l.equals(label)) { return true; }
+         }
+         return false;
+      }
+
+      void write(JsonGenerator json) throws IOException {
+         Random random = new Random(seed * 37 + iid);
+         json.writeStartObject();
+         json.writeNumberField("id", 50000 + iid);
+         json.writeNumberField("iid", iid);
+         json.writeNumberField("project_id", PROJECT_ID);
+         json.writeStringField("title", title);
+         json.writeStringField("description", text(random, 20 + random.nextInt(100)));
+         json.writeStringField("state", closed ? "closed" : "opened");
+         json.writeStringField("created_at", StubGitlabServer.format(createdAt));
+         json.writeStringField("updated_at", StubGitlabServer.format(updatedAt));
+         if (closed) {
+            json.writeStringField("closed_at", StubGitlabServer.format(updatedAt));
+         } else {
+            json.writeNullField("closed_at");
+         }
+         json.writeArrayFieldStart("labels");
+         for (String label : labels) {
+            json.writeString(label);
+         }
+         json.writeEndArray();
+         if (milestone >= 0) {
+            json.writeFieldName("milestone");
+            writeMilestone(json, milestone);
+         } else {
+            json.writeNullField("milestone");
+         }
+         json.writeArrayFieldStart("assignees");
+         if (assignee >= 0) {
+            writeUser(json, assignee);
+         }
+         json.writeEndArray();
+         json.writeFieldName("assignee");
+         if (assignee >= 0) {
+            writeUser(json, assignee);
+         } else {
+            json.writeNull();
+         }
+         json.writeFieldName("author");
+         writeUser(json, author);
+         // Every fifth note is a system note, which GitLab does not count
+         json.writeNumberField("user_notes_count", notesOf(iid) - notesOf(iid) / 5);
+         json.writeNumberField("upvotes", random.nextInt(5));
+         json.writeNumberField("downvotes", 0);
+         json.writeNullField("due_date");
+         json.writeBooleanField("confidential", false);
+         json.writeNullField("discussion_locked");
+         json.writeStringField("web_url", "https://gitlab.example.com/" + NAMESPACE + "/" + PATH + "/issues/" + iid);
+         json.writeObjectFieldStart("time_stats");
+         json.writeNumberField("time_estimate", 0);
+         json.writeNumberField("total_time_spent", 0);
+         json.writeEndObject();
+         json.writeEndObject();
+      }
+
+      /**
+       * Writes the note at the given position, oldest first
+       */
+      void writeNote(JsonGenerator json, int index) throws IOException {
+         Random random = new Random(seed * 41 + iid * 1000003L + index);
+         boolean system = index % 5 == 4;
+         long createdAt = this.createdAt + (index + 1) * (updatedAt - this.createdAt) / (notesOf(iid) + 1);
+         json.writeStartObject();
+         json.writeNumberField("id", iid * 10000 + index);
+         json.writeNullField("type");
+         json.writeStringField("body", system ? "changed milestone to %" + milestoneTitle(random.nextInt(milestoneCount))
+               : text(random, 10 + random.nextInt(70)));
+         json.writeNullField("attachment");
+         json.writeFieldName("author");
+         writeUser(json, random.nextInt(memberCount));
+         json.writeStringField("created_at", StubGitlabServer.format(createdAt));
+         json.writeStringField("updated_at", StubGitlabServer.format(createdAt));
+         json.writeBooleanField("system", system);
+         json.writeNumberField("noteable_id", 50000 + iid);
+         json.writeStringField("noteable_type", "Issue");
+         json.writeNumberField("noteable_iid", iid);
+         json.writeEndObject();
+      }
+   }
+}
@@ -0,0 +1,14 @@
+package ch.stautob.eclipse.mylyn.gitlab.core;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.GitlabIssueSearchTest;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.IssueWatermarkTest;
+import ch.stautob.eclipse.mylyn.gitlab.core.issues.NoteCacheTest;
+
+
+@RunWith(Suite.class)
+@SuiteClasses({ IssueWatermarkTest.class, GitlabIssueSearchTest.class, NoteCacheTest.class })
+public class PluginTestSuiteAll {}
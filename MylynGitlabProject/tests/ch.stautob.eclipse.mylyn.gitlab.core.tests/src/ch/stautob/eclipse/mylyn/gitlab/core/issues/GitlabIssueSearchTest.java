@@ -0,0 +1,63 @@
+package ch.stautob.eclipse.mylyn.gitlab.core.issues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.gitlab.api.IssueFilter;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabUser;
+import org.junit.Test;
+
+
+public class GitlabIssueSearchTest {
+
+   @Test
+   public void exactLabelIsSentToTheServer() {
+      IssueFilter filter = new GitlabIssueSearch("", "", true, false, "^bug$, ^needs review$").toFilter(null);
+
+      assertEquals(Arrays.asList("bug", "needs review"), filter.getLabels());
+      assertEquals(GitlabIssue.STATE_OPENED, filter.getState());
+   }
+
+   @Test
+   public void labelPatternsStayOnTheClient() {
+      IssueFilter filter = new GitlabIssueSearch("", "", true, true, "bug,^bug,bug$,^bu.$,^bug|feature$,^c\\+\\+$").toFilter(null);
+
+      assertEquals(Collections.emptyList(), filter.getLabels());
+      assertNull(filter.getState());
+   }
+
+   @Test
+   public void exactLabelIsMatchedLocallyAsWell() {
+      GitlabIssueSearch search = new GitlabIssueSearch("", "", true, false, "^bug$");
+
+      assertTrue(search.doesMatch(issue("bug")));
+      assertFalse(search.doesMatch(issue("bugfix")));
+      assertFalse(search.doesMatch(issue("minor", "no bug")));
+   }
+
+   @Test
+   public void assigneeIsSentAsUsername() {
+      GitlabUser member = new GitlabUser();
+      member.setUsername("jdoe");
+      member.setName("Jane Doe");
+
+      assertEquals("jdoe", new GitlabIssueSearch("Jane Doe", "", true, false, "").toFilter(Collections.singletonList(member))
+            .getAssigneeUsername());
+      assertEquals("jdoe", new GitlabIssueSearch("jdoe", "", true, false, "").toFilter(Collections.singletonList(member))
+            .getAssigneeUsername());
+      assertNull(new GitlabIssueSearch("someone", "", true, false, "").toFilter(Collections.singletonList(member)).getAssigneeUsername());
+   }
+
+   private static GitlabIssue issue(String... labels) {
+      GitlabIssue issue = new GitlabIssue();
+      issue.setState(GitlabIssue.STATE_OPENED);
+      issue.setLabels(labels);
+      return issue;
+   }
+}
@@ -0,0 +1,75 @@
+package ch.stautob.eclipse.mylyn.gitlab.core.issues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.gitlab.api.models.GitlabIssue;
+import org.junit.Test;
+
+
+public class IssueWatermarkTest {
+
+   private static final long UPDATED_AT = 1790000000000L;
+   private static final long NOW        = UPDATED_AT + 60000;
+
+   @Test
+   public void fetchesFromTheMarginBeforeTheLatestIssue() {
+      IssueWatermark mark = IssueWatermark.full(Arrays.asList(issue(UPDATED_AT - 5000), issue(UPDATED_AT)), "filter", NOW);
+
+      assertEquals(new Date(UPDATED_AT - IssueWatermark.MARGIN_MILLIS), mark.getUpdatedAfter());
+   }
+
+   @Test
+   public void issueAtTheMarkDoesNotAdvanceIt() {
+      IssueWatermark mark = IssueWatermark.full(Collections.singletonList(issue(UPDATED_AT)), "filter", NOW);
+
+      // updated_after is inclusive, the issue at the mark is fetched again by every incremental synchronization
+      assertSame(mark, mark.advance(Collections.singletonList(issue(UPDATED_AT))));
+      assertSame(mark, mark.advance(Collections.singletonList(issue(UPDATED_AT - IssueWatermark.MARGIN_MILLIS))));
+   }
+
+   @Test
+   public void advancesPastNewerIssues() {
+      IssueWatermark mark = IssueWatermark.full(Collections.singletonList(issue(UPDATED_AT)), "filter", NOW);
+
+      IssueWatermark advanced = mark.advance(Collections.singletonList(issue(UPDATED_AT + 1)));
+
+      assertEquals(new Date(UPDATED_AT + 1 - IssueWatermark.MARGIN_MILLIS), advanced.getUpdatedAfter());
+      assertTrue(advanced.isIncremental("filter", NOW));
+   }
+
+   @Test
+   public void changedFilterOrExpiredMarkNeedsFullSynchronization() {
+      IssueWatermark mark = IssueWatermark.full(Collections.singletonList(issue(UPDATED_AT)), "filter", NOW);
+
+      assertTrue(mark.isIncremental("filter", NOW + IssueWatermark.FULL_SYNC_INTERVAL_MILLIS - 1));
+      assertFalse(mark.isIncremental("other", NOW));
+      assertFalse(mark.isIncremental("filter", NOW + IssueWatermark.FULL_SYNC_INTERVAL_MILLIS));
+      assertFalse(mark.isIncremental("filter", NOW - 1));
+   }
+
+   @Test
+   public void isReadBackFromItsString() {
+      IssueWatermark mark = IssueWatermark.full(Collections.singletonList(issue(UPDATED_AT)), "state=opened:label", NOW);
+
+      IssueWatermark read = IssueWatermark.parse(mark.toString());
+
+      assertEquals(mark.getUpdatedAfter(), read.getUpdatedAfter());
+      assertTrue(read.isIncremental("state=opened:label", NOW));
+      assertNull(IssueWatermark.parse("garbage"));
+      assertNull(IssueWatermark.full(Collections.<GitlabIssue> emptyList(), "filter", NOW));
+   }
+
+   private static GitlabIssue issue(long updatedAt) {
+      GitlabIssue issue = new GitlabIssue();
+      issue.setUpdatedAt(new Date(updatedAt));
+      return issue;
+   }
+}
@@ -0,0 +1,163 @@
+package ch.stautob.eclipse.mylyn.gitlab.core.issues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.http.HttpTransport;
+import org.gitlab.api.http.TransportRequest;
+import org.gitlab.api.http.TransportResponse;
+import org.gitlab.api.models.GitlabIssue;
+import org.gitlab.api.models.GitlabNote;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class NoteCacheTest {
+
+   private static final String CREATED = "2026-01-01T10:00:00.000Z";
+   private static final String LAST    = "2026-01-01T11:00:00.000Z";
+
+   private NotesTransport transport;
+   private GitlabAPI      api;
+   private GitlabIssue    issue;
+
+   @Before
+   public void setUp() {
+      transport = new NotesTransport();
+      api = GitlabAPI.connect("https://gitlab.example.com", "token").transport(transport).responseCache(null).metrics(null);
+      issue = new GitlabIssue();
+      issue.setProjectId(5);
+      issue.setIid(7);
+   }
+
+   @Test
+   public void refreshAtTheTimeOfTheLastNoteFetchesItAgain() throws IOException {
+      NoteCache cache = new NoteCache();
+      transport.note(1, "first", CREATED, CREATED);
+      transport.note(2, "second", LAST, LAST);
+      issue.setUserNotesCount(2);
+      assertEquals("[first, second]", bodies(cache.getNotes(api, issue)));
+
+      // Edited and written within the same second as the last note, updated_after includes them
+      transport.note(2, "second (edited)", LAST, LAST);
+      transport.note(3, "third", LAST, LAST);
+      issue.setUserNotesCount(3);
+      List<GitlabNote> notes = cache.getNotes(api, issue);
+
+      assertEquals("[first, second (edited), third]", bodies(notes));
+      assertEquals(2, transport.requests.size());
+      String refresh = transport.requests.get(1).getQuery();
+      assertTrue(refresh.contains("order_by=updated_at"));
+      assertTrue(refresh.contains("sort=desc"));
+   }
+
+   @Test
+   public void refreshWithoutChangesKeepsTheNotes() throws IOException {
+      NoteCache cache = new NoteCache();
+      transport.note(1, "first", CREATED, CREATED);
+      transport.note(2, "second", LAST, LAST);
+      issue.setUserNotesCount(2);
+      cache.getNotes(api, issue);
+
+      assertEquals("[first, second]", bodies(cache.getNotes(api, issue)));
+      assertEquals(2, transport.requests.size());
+   }
+
+   @Test
+   public void deletedNoteFetchesAllNotes() throws IOException {
+      NoteCache cache = new NoteCache();
+      transport.note(1, "first", CREATED, CREATED);
+      transport.note(2, "second", LAST, LAST);
+      issue.setUserNotesCount(2);
+      cache.getNotes(api, issue);
+
+      transport.notes.remove(1);
+      issue.setUserNotesCount(1);
+
+      assertEquals("[second]", bodies(cache.getNotes(api, issue)));
+      assertEquals(3, transport.requests.size());
+      assertTrue(transport.requests.get(2).getQuery().contains("order_by=created_at"));
+   }
+
+   private static String bodies(List<GitlabNote> notes) {
+      return notes.stream().map(GitlabNote::getBody).collect(Collectors.toList()).toString();
+   }
+
+   /**
+    * Answers the note requests of an issue from the notes it holds, in the
+    * order requested and all on a single page
+    */
+   private static class NotesTransport implements HttpTransport {
+
+      final Map<Integer, String> notes    = new LinkedHashMap<>();
+      final List<URL>            requests = new ArrayList<>();
+
+      private final Map<Integer, String[]> times = new LinkedHashMap<>();
+
+      void note(int id, String body, String createdAt, String updatedAt) {
+         notes.put(id, "{\"id\":" + id + ",\"body\":\"" + body + "\",\"system\":false,\"created_at\":\"" + createdAt + "\",\"updated_at\":\"" +
+                       updatedAt + "\"}");
+         times.put(id, new String[] { createdAt, updatedAt });
+      }
+
+      @Override
+      public TransportResponse execute(TransportRequest request) {
+         URL url = request.getUrl();
+         requests.add(url);
+         String query = url.getQuery();
+         int time = query.contains("order_by=updated_at") ? 1 : 0;
+         Comparator<Integer> order = Comparator.<Integer, String> comparing(id -> times.get(id)[time]).thenComparing(id -> id);
+         if (query.contains("sort=desc")) {
+            order = order.reversed();
+         }
+         return response(url, "[" + notes.keySet().stream().sorted(order).map(notes::get).collect(Collectors.joining(",")) + "]");
+      }
+
+      @Override
+      public void close() {}
+
+      private static TransportResponse response(URL url, String body) {
+         return new TransportResponse() {
+
+            @Override
+            public URL getUrl() {
+               return url;
+            }
+
+            @Override
+            public int getStatusCode() {
+               return 200;
+            }
+
+            @Override
+            public String getHeader(String name) {
+               if (name.equalsIgnoreCase("Content-Type")) { return "application/json"; }
+               // Like GitLab on the last page
+               if (name.equalsIgnoreCase("X-Next-Page")) { return ""; }
+               return null;
+            }
+
+            @Override
+            public InputStream getBody() {
+               return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void close() {}
+         };
+      }
+   }
+}
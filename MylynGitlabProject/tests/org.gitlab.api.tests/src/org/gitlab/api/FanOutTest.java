@@ -0,0 +1,114 @@
+package org.gitlab.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class FanOutTest {
+
+   private static final List<Integer> ITEMS = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+
+   private ExecutorService executor;
+   private Thread          caller;
+
+   @Before
+   public void setUp() {
+      executor = Executors.newCachedThreadPool();
+      caller = Thread.currentThread();
+   }
+
+   @After
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   @Test
+   public void keepsAtMostTheConcurrencyInFlight() throws IOException {
+      AtomicInteger inFlight = new AtomicInteger();
+      AtomicInteger maxInFlight = new AtomicInteger();
+      Results results = new Results();
+
+      boolean done = new FanOut<Integer, Integer>(executor, 3).run(ITEMS, item -> {
+         maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+         Thread.sleep(20);
+         inFlight.decrementAndGet();
+         return item * 10;
+      }, results);
+
+      assertTrue(done);
+      assertTrue(maxInFlight.get() <= 3);
+      assertEquals(10, results.completed.size());
+      assertEquals(Integer.valueOf(70), results.completed.get(7));
+   }
+
+   @Test
+   public void failureDoesNotStopTheOthers() throws IOException {
+      Results results = new Results();
+
+      new FanOut<Integer, Integer>(executor, 2).run(ITEMS, item -> {
+         if (item == 4) { throw new IOException("Not found"); }
+         return item;
+      }, results);
+
+      assertEquals(9, results.completed.size());
+      assertEquals(Collections.singletonList(4), results.failed);
+   }
+
+   @Test
+   public void cancellationStopsStartingRequests() throws IOException {
+      AtomicInteger started = new AtomicInteger();
+      Results results = new Results();
+
+      boolean done = new FanOut<Integer, Integer>(executor, 1).cancelWhen(() -> results.completed.size() >= 2).run(ITEMS, item -> {
+         started.incrementAndGet();
+         return item;
+      }, results);
+
+      assertFalse(done);
+      assertEquals(2, results.completed.size());
+      assertEquals(2, started.get());
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void rejectsConcurrencyBelowOne() {
+      new FanOut<Integer, Integer>(executor, 0);
+   }
+
+   /**
+    * Checks that results arrive on the thread running the fan out
+    */
+   private class Results implements FanOut.Listener<Integer, Integer> {
+
+      final Map<Integer, Integer> completed = new TreeMap<>();
+      final List<Integer>         failed    = new ArrayList<>();
+
+      @Override
+      public void completed(Integer item, Integer result) {
+         assertSame(caller, Thread.currentThread());
+         completed.put(item, result);
+      }
+
+      @Override
+      public void failed(Integer item, Exception e) {
+         assertSame(caller, Thread.currentThread());
+         failed.add(item);
+      }
+   }
+}
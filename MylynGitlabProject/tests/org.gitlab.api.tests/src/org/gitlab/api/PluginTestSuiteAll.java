@@ -0,0 +1,15 @@
+package org.gitlab.api;
+
+import org.gitlab.api.http.RateLimiterTest;
+import org.gitlab.api.http.ResponseCacheTest;
+import org.gitlab.api.http.RetryPolicyTest;
+import org.gitlab.api.http.SingleFlightTest;
+import org.gitlab.api.http.TlsConfigTest;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+
+@RunWith(Suite.class)
+@SuiteClasses({ ResponseCacheTest.class, RateLimiterTest.class, RetryPolicyTest.class, SingleFlightTest.class, TlsConfigTest.class, FanOutTest.class })
+public class PluginTestSuiteAll {}
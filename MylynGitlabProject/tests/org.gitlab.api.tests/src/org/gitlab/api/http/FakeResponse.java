@@ -0,0 +1,71 @@
+package org.gitlab.api.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * A response with a body given as a string, sent with its Content-Length
+ * unless the header is given otherwise
+ */
+class FakeResponse implements TransportResponse {
+
+   private final int                 statusCode;
+   private final byte[]              body;
+   private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+   private URL     url;
+   private boolean closed;
+
+   FakeResponse(int statusCode, String body) {
+      this.statusCode = statusCode;
+      this.body = body != null ? body.getBytes(StandardCharsets.UTF_8) : null;
+      if (body != null) {
+         headers.put("Content-Type", "application/json");
+         headers.put("Content-Length", String.valueOf(this.body.length));
+      }
+   }
+
+   FakeResponse header(String name, String value) {
+      headers.put(name, value);
+      return this;
+   }
+
+   FakeResponse at(URL url) {
+      this.url = url;
+      return this;
+   }
+
+   boolean isClosed() {
+      return closed;
+   }
+
+   @Override
+   public URL getUrl() {
+      return url;
+   }
+
+   @Override
+   public int getStatusCode() {
+      return statusCode;
+   }
+
+   @Override
+   public String getHeader(String name) {
+      return headers.get(name);
+   }
+
+   @Override
+   public InputStream getBody() {
+      return body != null ? new ByteArrayInputStream(body) : null;
+   }
+
+   @Override
+   public void close() {
+      closed = true;
+   }
+}
@@ -0,0 +1,51 @@
+package org.gitlab.api.http;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+
+/**
+ * Answers requests with the responses and failures handed to it, in order,
+ * and keeps the requests it was sent
+ */
+class FakeTransport implements HttpTransport {
+
+   private interface Reply {
+
+      TransportResponse to(URL url) throws IOException;
+   }
+
+   private final Deque<Reply>           replies  = new ArrayDeque<>();
+   private final List<TransportRequest> requests = new ArrayList<>();
+
+   synchronized FakeTransport respond(FakeResponse response) {
+      replies.add(response::at);
+      return this;
+   }
+
+   synchronized FakeTransport fail(IOException failure) {
+      replies.add(url -> {
+         throw failure;
+      });
+      return this;
+   }
+
+   @Override
+   public synchronized TransportResponse execute(TransportRequest request) throws IOException {
+      requests.add(request);
+      Reply reply = replies.poll();
+      if (reply == null) { throw new IllegalStateException("Unexpected request " + request.getMethod() + " " + request.getUrl()); }
+      return reply.to(request.getUrl());
+   }
+
+   synchronized List<TransportRequest> getRequests() {
+      return new ArrayList<>(requests);
+   }
+
+   @Override
+   public void close() {}
+}
@@ -0,0 +1,71 @@
+package org.gitlab.api.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.GitlabAPIException;
+import org.gitlab.api.models.GitlabProject;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class RateLimiterTest {
+
+   private FakeTransport transport;
+
+   @Before
+   public void setUp() {
+      transport = new FakeTransport();
+   }
+
+   @Test
+   public void replaysTooManyRequestsAfterRetryAfter() throws IOException {
+      RateLimiter limiter = new RateLimiter();
+      GitlabAPI api = connect(limiter);
+      FakeResponse rejected = new FakeResponse(429, "{\"message\":\"Retry later\"}").header("Retry-After", "1");
+      transport.respond(rejected);
+      transport.respond(new FakeResponse(200, "{\"id\":1,\"name\":\"first\"}"));
+
+      long start = System.currentTimeMillis();
+      GitlabProject project = api.retrieve().to("/projects/1", GitlabProject.class);
+
+      assertEquals("first", project.getName());
+      assertTrue(System.currentTimeMillis() - start >= 1000);
+      assertEquals(2, transport.getRequests().size());
+      assertTrue(rejected.isClosed());
+      assertEquals(1, limiter.getRejected());
+      assertEquals(1, limiter.getWaits());
+   }
+
+   @Test
+   public void failsOnceReplaysAreExhausted() throws IOException {
+      RateLimiter limiter = new RateLimiter(RateLimiter.DEFAULT_MAX_WAIT, 0);
+      GitlabAPI api = connect(limiter);
+      transport.respond(new FakeResponse(429, "{\"message\":\"Retry later\"}").header("Retry-After", "1"));
+
+      try {
+         api.retrieve().to("/projects/1", GitlabProject.class);
+         fail("429 not reported");
+      } catch (GitlabAPIException e) {
+         assertEquals(429, e.getResponseCode());
+      }
+      assertEquals(1, transport.getRequests().size());
+   }
+
+   @Test
+   public void readsRetryAfterInSecondsAndAsDate() {
+      assertEquals(2000, RateLimiter.retryAfter("2", 0));
+      assertEquals(5000, RateLimiter.retryAfter("Thu, 01 Jan 1970 00:00:05 GMT", 0));
+      assertEquals(0, RateLimiter.retryAfter("soon", 0));
+      assertEquals(0, RateLimiter.retryAfter(null, 0));
+   }
+
+   private GitlabAPI connect(RateLimiter limiter) {
+      return GitlabAPI.connect("https://gitlab.example.com", "token").transport(transport).rateLimiter(limiter).retryPolicy(null)
+            .metrics(null);
+   }
+}
@@ -0,0 +1,78 @@
+package org.gitlab.api.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.models.GitlabProject;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class ResponseCacheTest {
+
+   private FakeTransport transport;
+
+   @Before
+   public void setUp() {
+      transport = new FakeTransport();
+   }
+
+   @Test
+   public void servesTheCachedBodyOnNotModified() throws IOException {
+      ResponseCache cache = new ResponseCache();
+      GitlabAPI api = connect(cache);
+      transport.respond(new FakeResponse(200, "{\"id\":1,\"name\":\"first\"}").header("ETag", "W/\"1\""));
+      transport.respond(new FakeResponse(304, null).header("ETag", "W/\"1\""));
+
+      api.retrieve().to("/projects/1", GitlabProject.class);
+      GitlabProject project = api.retrieve().to("/projects/1", GitlabProject.class);
+
+      assertEquals("first", project.getName());
+      List<TransportRequest> requests = transport.getRequests();
+      assertNull(requests.get(0).getHeader("If-None-Match"));
+      assertEquals("W/\"1\"", requests.get(1).getHeader("If-None-Match"));
+      assertEquals(1, cache.getMetrics().getStores());
+      assertEquals(1, cache.getMetrics().getHits());
+   }
+
+   @Test
+   public void evictsTheLeastRecentlyUsedResponse() throws IOException {
+      // Room for one of the 23 byte bodies
+      ResponseCache cache = new ResponseCache(30);
+      GitlabAPI api = connect(cache);
+      transport.respond(new FakeResponse(200, "{\"id\":1,\"name\":\"first\"}").header("ETag", "W/\"1\""));
+      transport.respond(new FakeResponse(200, "{\"id\":2,\"name\":\"other\"}").header("ETag", "W/\"2\""));
+      transport.respond(new FakeResponse(200, "{\"id\":1,\"name\":\"first\"}").header("ETag", "W/\"1\""));
+
+      api.retrieve().to("/projects/1", GitlabProject.class);
+      api.retrieve().to("/projects/2", GitlabProject.class);
+      api.retrieve().to("/projects/1", GitlabProject.class);
+
+      assertNull(transport.getRequests().get(2).getHeader("If-None-Match"));
+      assertEquals(3, cache.getMetrics().getStores());
+      assertEquals(2, cache.getMetrics().getEvictions());
+      assertEquals(1, cache.getMetrics().getEntries());
+   }
+
+   @Test
+   public void storesResponsesWithMalformedContentLength() throws IOException {
+      ResponseCache cache = new ResponseCache();
+      GitlabAPI api = connect(cache);
+      transport.respond(new FakeResponse(200, "{\"id\":1,\"name\":\"first\"}").header("ETag", "W/\"1\"").header("Content-Length", "24 bytes"));
+      transport.respond(new FakeResponse(304, null).header("ETag", "W/\"1\""));
+
+      assertEquals("first", api.retrieve().to("/projects/1", GitlabProject.class).getName());
+      assertEquals("first", api.retrieve().to("/projects/1", GitlabProject.class).getName());
+
+      assertEquals(1, cache.getMetrics().getStores());
+      assertEquals(1, cache.getMetrics().getHits());
+   }
+
+   private GitlabAPI connect(ResponseCache cache) {
+      return GitlabAPI.connect("https://gitlab.example.com", "token").transport(transport).responseCache(cache).metrics(null);
+   }
+}
@@ -0,0 +1,78 @@
+package org.gitlab.api.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.GitlabAPIException;
+import org.gitlab.api.models.GitlabProject;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class RetryPolicyTest {
+
+   private FakeTransport transport;
+   private RetryPolicy   policy;
+   private GitlabAPI     api;
+
+   @Before
+   public void setUp() {
+      transport = new FakeTransport();
+      policy = new RetryPolicy(3, 1, 10);
+      api = GitlabAPI.connect("https://gitlab.example.com", "token").transport(transport).retryPolicy(policy).metrics(null);
+   }
+
+   @Test
+   public void onlyIdempotentMethodsAreRetried() {
+      assertFalse(policy.isIdempotent(Method.POST));
+      assertFalse(policy.isIdempotent(Method.PATCH));
+      assertTrue(policy.isIdempotent(Method.GET));
+      assertTrue(policy.isIdempotent(Method.HEAD));
+      assertTrue(policy.isIdempotent(Method.PUT));
+      assertTrue(policy.isIdempotent(Method.DELETE));
+   }
+
+   @Test
+   public void postIsNotRetriedOnUnavailable() throws IOException {
+      transport.respond(new FakeResponse(503, "{\"message\":\"Unavailable\"}"));
+
+      try {
+         api.dispatch().to("/projects", GitlabProject.class);
+         fail("503 not reported");
+      } catch (GitlabAPIException e) {
+         assertEquals(503, e.getResponseCode());
+      }
+      assertEquals(1, transport.getRequests().size());
+      assertEquals(0, policy.getRetries());
+   }
+
+   @Test
+   public void postIsNotRetriedOnTimeout() throws IOException {
+      transport.fail(new SocketTimeoutException("Read timed out"));
+
+      try {
+         api.dispatch().to("/projects", GitlabProject.class);
+         fail("Timeout not reported");
+      } catch (SocketTimeoutException e) {
+         // may have been processed, not sent again
+      }
+      assertEquals(1, transport.getRequests().size());
+      assertEquals(0, policy.getRetries());
+   }
+
+   @Test
+   public void getIsRetriedOnUnavailable() throws IOException {
+      transport.respond(new FakeResponse(503, "{\"message\":\"Unavailable\"}"));
+      transport.respond(new FakeResponse(200, "{\"id\":1,\"name\":\"first\"}"));
+
+      assertEquals("first", api.retrieve().to("/projects/1", GitlabProject.class).getName());
+      assertEquals(2, transport.getRequests().size());
+      assertEquals(1, policy.getRetries());
+   }
+}
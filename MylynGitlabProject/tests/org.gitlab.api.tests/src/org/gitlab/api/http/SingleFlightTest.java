@@ -0,0 +1,133 @@
+package org.gitlab.api.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class SingleFlightTest {
+
+   private static final String KEY = "GET https://gitlab.example.com/api/v4/projects";
+
+   private SingleFlight    singleFlight;
+   private ExecutorService executor;
+   private CountDownLatch  sent;
+   private CountDownLatch  respond;
+
+   @Before
+   public void setUp() {
+      singleFlight = new SingleFlight();
+      executor = Executors.newCachedThreadPool();
+      sent = new CountDownLatch(1);
+      respond = new CountDownLatch(1);
+   }
+
+   @After
+   public void tearDown() {
+      executor.shutdownNow();
+   }
+
+   @Test
+   public void waiterSharesTheResponseOfTheOwner() throws Exception {
+      Future<TransportResponse> owner = executor.submit(() -> singleFlight.execute(KEY, () -> {
+         sent.countDown();
+         await(respond);
+         return response("[1]");
+      }));
+      sent.await();
+      Future<TransportResponse> waiter = executor.submit(() -> singleFlight.execute(KEY, () -> {
+         throw new AssertionError("Sent twice");
+      }));
+      while (singleFlight.getCoalesced() == 0) {
+         Thread.sleep(1);
+      }
+      respond.countDown();
+
+      assertEquals("[1]", read(owner.get()));
+      assertEquals("[1]", read(waiter.get()));
+      assertEquals(1, singleFlight.getSent());
+      assertEquals(0, singleFlight.getInFlight());
+   }
+
+   @Test
+   public void ownerStreamsIfNobodyWaits() throws Exception {
+      FakeResponse streamed = response("[1]");
+      TransportResponse response = singleFlight.execute(KEY, () -> streamed);
+
+      // Sent while the owner still reads the body, too late to share it
+      TransportResponse other = singleFlight.execute(KEY, () -> response("[2]"));
+
+      assertSame(streamed, response);
+      assertEquals("[2]", read(other));
+      assertEquals("[1]", read(response));
+      assertEquals(2, singleFlight.getSent());
+      assertEquals(0, singleFlight.getCoalesced());
+   }
+
+   @Test
+   public void waiterSharesTheFailureOfTheOwner() throws Exception {
+      IOException failure = new IOException("Connection reset");
+      Future<TransportResponse> owner = executor.submit(() -> singleFlight.execute(KEY, () -> {
+         sent.countDown();
+         await(respond);
+         throw failure;
+      }));
+      sent.await();
+      Future<TransportResponse> waiter = executor.submit(() -> singleFlight.execute(KEY, () -> {
+         throw new AssertionError("Sent twice");
+      }));
+      while (singleFlight.getCoalesced() == 0) {
+         Thread.sleep(1);
+      }
+      respond.countDown();
+
+      assertSame(failure, cause(owner));
+      assertSame(failure, cause(waiter));
+      assertEquals(0, singleFlight.getInFlight());
+   }
+
+   private static FakeResponse response(String body) throws IOException {
+      return new FakeResponse(200, body).at(new URL("https://gitlab.example.com/api/v4/projects"));
+   }
+
+   private static String read(TransportResponse response) throws IOException {
+      try {
+         return IOUtils.toString(response.getBody(), StandardCharsets.UTF_8);
+      } finally {
+         response.close();
+      }
+   }
+
+   private static void await(CountDownLatch latch) throws InterruptedIOException {
+      try {
+         latch.await();
+      } catch (InterruptedException e) {
+         throw new InterruptedIOException();
+      }
+   }
+
+   private static Throwable cause(Future<?> future) throws InterruptedException {
+      try {
+         future.get();
+         fail("Failure not shared");
+         return null;
+      } catch (ExecutionException e) {
+         return e.getCause();
+      }
+   }
+}
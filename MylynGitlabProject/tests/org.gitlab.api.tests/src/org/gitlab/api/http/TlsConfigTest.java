@@ -0,0 +1,71 @@
+package org.gitlab.api.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+
+import org.gitlab.api.GitlabAPI;
+import org.gitlab.api.models.GitlabProject;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class TlsConfigTest {
+
+   private FakeTransport transport;
+   private GitlabAPI     api;
+
+   @Before
+   public void setUp() {
+      transport = new FakeTransport();
+      api = GitlabAPI.connect("https://gitlab.example.com", "token").transport(transport).responseCache(null).metrics(null);
+   }
+
+   @Test
+   public void trustAllSettingsAreBuiltOnce() throws IOException {
+      SSLSocketFactory defaultFactory = HttpsURLConnection.getDefaultSSLSocketFactory();
+      HostnameVerifier defaultVerifier = HttpsURLConnection.getDefaultHostnameVerifier();
+      api.ignoreCertificateErrors(true);
+
+      List<TransportRequest> requests = get(2);
+
+      TlsConfig tls = requests.get(0).getTls();
+      assertNotNull(tls);
+      assertSame(tls, requests.get(1).getTls());
+      assertSame(tls.getSocketFactory(), requests.get(1).getTls().getSocketFactory());
+      assertSame(defaultFactory, HttpsURLConnection.getDefaultSSLSocketFactory());
+      assertSame(defaultVerifier, HttpsURLConnection.getDefaultHostnameVerifier());
+   }
+
+   @Test
+   public void strictApiLeavesTlsToTheTransport() throws IOException {
+      assertNull(get(1).get(0).getTls());
+   }
+
+   @Test
+   public void givenSettingsAreSent() throws Exception {
+      TlsConfig tls = new TlsConfig(SSLContext.getDefault(), HttpsURLConnection.getDefaultHostnameVerifier());
+      api.tlsConfig(tls).ignoreCertificateErrors(true);
+
+      assertSame(tls, get(1).get(0).getTls());
+   }
+
+   private List<TransportRequest> get(int count) throws IOException {
+      for (int i = 0; i < count; i++) {
+         transport.respond(new FakeResponse(200, "{\"id\":1,\"name\":\"first\"}"));
+         api.retrieve().to("/projects/1", GitlabProject.class);
+      }
+      List<TransportRequest> requests = transport.getRequests();
+      assertEquals(count, requests.size());
+      return requests;
+   }
+}